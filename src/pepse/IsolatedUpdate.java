@@ -0,0 +1,25 @@
+package pepse;
+
+/**
+ * Marks a game object whose update, and the update of all its components, reads and
+ * writes only the object itself. Such objects can be updated in parallel with each other
+ * by a {@link ParallelUpdateExecutor}, ahead of the sequential update of the other objects.
+ * Objects whose components move, add or remove other objects must not be marked.
+ */
+public interface IsolatedUpdate {
+
+    /**
+     * Sets whether the object is updated by a parallel executor. While it is, the
+     * object's regular update must do nothing, so it is not updated twice.
+     *
+     * @param updatedInParallel True if a parallel executor updates the object.
+     */
+    void setUpdatedInParallel(boolean updatedInParallel);
+
+    /**
+     * Updates the object and its components, on whichever thread calls it.
+     *
+     * @param deltaTime The time that passed since the last update.
+     */
+    void updateIsolated(float deltaTime);
+}
@@ -0,0 +1,177 @@
+package pepse;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Keeps the number of live objects per world layer under a configurable budget.
+ * When a budget is exceeded the governor degrades the world step by step:
+ * first decorative flowers are thinned, then the eviction margins around the
+ * loaded world are shrunk. Terrain is never skipped, so the ground under the
+ * avatar is always generated.
+ */
+public class LayerBudgetGovernor {
+    private static final int DEFAULT_TERRAIN_BUDGET = 6000;
+    private static final int DEFAULT_TREE_BUDGET = 60;
+    private static final int DEFAULT_FLOWER_BUDGET = 1200;
+    private static final int DEFAULT_FRUIT_BUDGET = 300;
+    private static final float RECOVERY_RATIO = 0.8f; // Usage ratio under which we step back up
+    private static final int FLOWER_THINNING_STRIDE = 2; // Keep one of every STRIDE flowers when thinning
+    private static final float SHRUNK_MARGIN_RATIO = 0f; // Margin left when margins are shrunk
+
+    /**
+     * The degradation steps, in the order in which they are applied.
+     */
+    public enum DegradationLevel {
+        NONE,
+        THIN_FLOWERS,
+        SHRINK_MARGINS
+    }
+
+    private final Map<LayerManager.GameLayer, Integer> budgets =
+            new EnumMap<>(LayerManager.GameLayer.class);
+    private final Map<LayerManager.GameLayer, Integer> usage =
+            new EnumMap<>(LayerManager.GameLayer.class);
+    private DegradationLevel degradationLevel = DegradationLevel.NONE;
+
+    /**
+     * Constructor for the LayerBudgetGovernor class, using the default budgets.
+     */
+    public LayerBudgetGovernor() {
+        setBudget(LayerManager.GameLayer.TERRAIN, DEFAULT_TERRAIN_BUDGET);
+        setBudget(LayerManager.GameLayer.TREE, DEFAULT_TREE_BUDGET);
+        setBudget(LayerManager.GameLayer.FLOWER, DEFAULT_FLOWER_BUDGET);
+        setBudget(LayerManager.GameLayer.FRUIT, DEFAULT_FRUIT_BUDGET);
+    }
+
+    /**
+     * Sets the budget of a layer.
+     *
+     * @param gameLayer The layer.
+     * @param budget    The maximal number of live objects wanted in the layer.
+     */
+    public void setBudget(LayerManager.GameLayer gameLayer, int budget) {
+        budgets.put(gameLayer, budget);
+        usage.putIfAbsent(gameLayer, 0);
+    }
+
+    /**
+     * Gets the budget of a layer.
+     *
+     * @param gameLayer The layer.
+     * @return The budget, or Integer.MAX_VALUE if the layer is not governed.
+     */
+    public int getBudget(LayerManager.GameLayer gameLayer) {
+        return budgets.getOrDefault(gameLayer, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets the current number of live objects in a layer.
+     *
+     * @param gameLayer The layer.
+     * @return The number of live objects.
+     */
+    public int getUsage(LayerManager.GameLayer gameLayer) {
+        return usage.getOrDefault(gameLayer, 0);
+    }
+
+    /**
+     * Gets the current degradation level.
+     *
+     * @return The degradation level.
+     */
+    public DegradationLevel getDegradationLevel() {
+        return degradationLevel;
+    }
+
+    /**
+     * Records an object that was added to a layer.
+     *
+     * @param gameLayer The layer.
+     */
+    public void onAdded(LayerManager.GameLayer gameLayer) {
+        if (budgets.containsKey(gameLayer)) {
+            usage.merge(gameLayer, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Records an object that was removed from a layer.
+     *
+     * @param gameLayer The layer.
+     */
+    public void onRemoved(LayerManager.GameLayer gameLayer) {
+        if (budgets.containsKey(gameLayer)) {
+            usage.merge(gameLayer, -1, Integer::sum);
+        }
+    }
+
+    /**
+     * Re-evaluates the degradation level against the current usage.
+     * Moves at most one step per call, so degradation is applied in order.
+     *
+     * @return True if the degradation level changed.
+     */
+    public boolean update() {
+        DegradationLevel previous = degradationLevel;
+        DegradationLevel[] levels = DegradationLevel.values();
+        if (isOverBudget() && degradationLevel.ordinal() < levels.length - 1) {
+            degradationLevel = levels[degradationLevel.ordinal() + 1];
+        } else if (isWellUnderBudget() && degradationLevel.ordinal() > 0) {
+            degradationLevel = levels[degradationLevel.ordinal() - 1];
+        }
+        return degradationLevel != previous;
+    }
+
+    /**
+     * Decides whether a flower should be shown. While flowers are thinned one of every
+     * few flowers of a tree is kept, so the same flowers are kept every time.
+     *
+     * @param flowerIndex The index of the flower within its tree.
+     * @return True if the flower should be shown.
+     */
+    public boolean shouldAddFlower(int flowerIndex) {
+        return degradationLevel == DegradationLevel.NONE || flowerIndex % FLOWER_THINNING_STRIDE == 0;
+    }
+
+    /**
+     * Gets the eviction margin to use around the loaded world.
+     *
+     * @param baseMargin The margin used when the world is within budget.
+     * @return The margin to use.
+     */
+    public int evictionMargin(int baseMargin) {
+        if (degradationLevel == DegradationLevel.SHRINK_MARGINS) {
+            return (int) (baseMargin * SHRUNK_MARGIN_RATIO);
+        }
+        return baseMargin;
+    }
+
+    /**
+     * Checks whether any governed layer is over its budget.
+     *
+     * @return True if a layer is over budget.
+     */
+    private boolean isOverBudget() {
+        for (Map.Entry<LayerManager.GameLayer, Integer> budget : budgets.entrySet()) {
+            if (getUsage(budget.getKey()) > budget.getValue()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether all governed layers are comfortably under their budget.
+     *
+     * @return True if every layer is under the recovery ratio of its budget.
+     */
+    private boolean isWellUnderBudget() {
+        for (Map.Entry<LayerManager.GameLayer, Integer> budget : budgets.entrySet()) {
+            if (getUsage(budget.getKey()) > budget.getValue() * RECOVERY_RATIO) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
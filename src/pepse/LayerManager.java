@@ -12,15 +12,22 @@ public class LayerManager {
      */
     public enum GameLayer {
         AVATAR(Layer.DEFAULT),
+        WEATHER(Layer.DEFAULT + 1),
         TERRAIN(Layer.STATIC_OBJECTS),
         TREE(Layer.STATIC_OBJECTS),
         FRUIT(Layer.STATIC_OBJECTS + 2),
         FLOWER(Layer.STATIC_OBJECTS + 1),
-        SKY(Layer.BACKGROUND),
+        TREE_IMPOSTOR(Layer.STATIC_OBJECTS + 1),
+        CROWD(Layer.STATIC_OBJECTS + 3),
+        SKY(Layer.BACKGROUND - 1), // Below the sun and its halo, which share the background layer
+        PARALLAX_CLOUDS(Layer.BACKGROUND + 1),
+        PARALLAX_FAR(Layer.BACKGROUND + 2),
+        PARALLAX_NEAR(Layer.BACKGROUND + 3),
         NIGHT(Layer.FOREGROUND),
         SUN(Layer.BACKGROUND),
         SUN_HALO(Layer.BACKGROUND),
-        ENERGY(Layer.UI);
+        ENERGY(Layer.UI),
+        MINIMAP(Layer.UI);
 
         private final int layer;
 
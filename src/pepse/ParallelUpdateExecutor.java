@@ -0,0 +1,137 @@
+package pepse;
+
+import pepse.world.Chunk;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Updates the isolated objects of the world in parallel, one fork-join batch per chunk.
+ * Every batch is joined before {@link #update} returns, so the sequential update of the
+ * other objects, physics and rendering never overlap a parallel batch.
+ * Small worlds are updated on the calling thread, where forking costs more than it saves.
+ */
+public class ParallelUpdateExecutor {
+    private static final int MIN_PARALLEL_OBJECTS = 256; // Fewer objects are updated inline
+
+    private final ForkJoinPool pool;
+    private final Map<Integer, Set<IsolatedUpdate>> batches = new HashMap<>();
+    private final Map<IsolatedUpdate, Integer> chunkOfObject = new HashMap<>();
+    private final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+
+    /**
+     * Constructor for the ParallelUpdateExecutor class, using the common fork-join pool.
+     */
+    public ParallelUpdateExecutor() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor for the ParallelUpdateExecutor class.
+     *
+     * @param pool The pool the batches run on.
+     */
+    public ParallelUpdateExecutor(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Starts updating an object in parallel, in the batch of the chunk it is in.
+     *
+     * @param object The object.
+     * @param x      The x-coordinate of the object, selecting its chunk.
+     */
+    public void add(IsolatedUpdate object, float x) {
+        int chunkIndex = Chunk.indexAt(x);
+        if (chunkOfObject.putIfAbsent(object, chunkIndex) == null) {
+            batches.computeIfAbsent(chunkIndex, index -> new LinkedHashSet<>()).add(object);
+            object.setUpdatedInParallel(true);
+        }
+    }
+
+    /**
+     * Stops updating an object in parallel, giving it back to the sequential update.
+     *
+     * @param object The object.
+     */
+    public void remove(IsolatedUpdate object) {
+        Integer chunkIndex = chunkOfObject.remove(object);
+        if (chunkIndex == null) {
+            return;
+        }
+        Set<IsolatedUpdate> batch = batches.get(chunkIndex);
+        batch.remove(object);
+        if (batch.isEmpty()) {
+            batches.remove(chunkIndex);
+        }
+        object.setUpdatedInParallel(false);
+    }
+
+    /**
+     * Gives every object back to the sequential update.
+     */
+    public void clear() {
+        chunkOfObject.keySet().forEach(object -> object.setUpdatedInParallel(false));
+        chunkOfObject.clear();
+        batches.clear();
+    }
+
+    /**
+     * Gets the number of objects updated in parallel.
+     *
+     * @return The object count.
+     */
+    public int size() {
+        return chunkOfObject.size();
+    }
+
+    /**
+     * Updates all the objects, one batch per chunk, and waits for every batch to finish.
+     *
+     * @param deltaTime The time that passed since the last update.
+     */
+    public void update(float deltaTime) {
+        if (chunkOfObject.size() < MIN_PARALLEL_OBJECTS || batches.size() < 2) {
+            batches.values().forEach(batch -> updateBatch(batch, deltaTime));
+            return;
+        }
+        for (Set<IsolatedUpdate> batch : batches.values()) {
+            tasks.add(pool.submit(() -> updateBatch(batch, deltaTime)));
+        }
+        // Join every batch, even after a failure, so none outlives the barrier
+        RuntimeException failure = null;
+        for (ForkJoinTask<?> task : tasks) {
+            try {
+                task.join();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        tasks.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Updates the objects of one batch, one after another.
+     *
+     * @param batch     The objects of one chunk.
+     * @param deltaTime The time that passed since the last update.
+     */
+    private static void updateBatch(Set<IsolatedUpdate> batch, float deltaTime) {
+        for (IsolatedUpdate object : batch) {
+            object.updateIsolated(deltaTime);
+        }
+    }
+}
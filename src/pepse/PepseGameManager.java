@@ -3,23 +3,41 @@ package pepse;
 import danogl.GameManager;
 import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
-import danogl.components.ScheduledTask;
 import danogl.gui.ImageReader;
 import danogl.gui.SoundReader;
 import danogl.gui.UserInputListener;
 import danogl.gui.WindowController;
 import danogl.util.Vector2;
-import pepse.util.BlockUtil;
+import pepse.events.ChunkGeneratedEvent;
+import pepse.events.FruitEatenEvent;
+import pepse.events.FruitRespawnedEvent;
+import pepse.events.ObjectsEvictedEvent;
+import pepse.events.OriginRebasedEvent;
+import pepse.replay.InputRecorder;
+import pepse.replay.InputReplay;
 import pepse.world.*;
-import pepse.world.daynight.Night;
+import pepse.world.daynight.NightLighting;
 import pepse.world.daynight.Sun;
 import pepse.world.daynight.SunHalo;
+import pepse.world.daynight.WorldClock;
 import pepse.world.trees.*;
+import pepse.world.weather.ParticleEmitter;
+import pepse.world.weather.Weather;
 import danogl.gui.rendering.Camera;
 
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 import static pepse.util.BlockUtil.getNearestBlockLocation;
 import static pepse.world.Avatar.AVATAR_HEIGHT;
@@ -31,14 +49,69 @@ public class PepseGameManager extends GameManager {
 
     private final int CYCLE_LENGTH = 30;
     private final float EATEN_FRUIT_ENERGY = 10f;
-    private static final String AVATAR_TAG = "avatar";
-    private static final int SEED = 12;
-    private int minX;
-    private int maxX;
-    private int WORLD_BUFFER = Block.SIZE * 10;
+    private static final int DEFAULT_SEED = 12;
+    private static final int DEFAULT_TREE_ARCHETYPES = 32;
+    private static final float TREE_DETAIL_MARGIN = Block.SIZE * 3; // Beyond the screen edge
+    private static final float TREE_DETAIL_HYSTERESIS = Block.SIZE * 2;
+    private static final String RECORD_ARG = "--record";
+    private static final String REPLAY_ARG = "--replay";
+    private static final String CROWD_ARG = "--crowd";
+    private static final String PARALLEL_ARG = "--parallel";
+    private static final String SEED_ARG = "--seed";
+    private static final float DEFAULT_FIXED_TIME_STEP = 1f / 60;
+    private static final int DEFAULT_MAX_SUB_STEPS = 5;
+    private static final String JUMP_LISTENERS_COUNT = "jumpListeners";
+    private static final String PENDING_RESPAWNS_COUNT = "pendingRespawns";
+    private static final String PICKUP_GRID_COUNT = "pickupGridFruits";
+    private static final String PARALLEL_OBJECTS_COUNT = "parallelObjects";
+    private static final int EVICTION_MARGIN_CHUNKS = 1; // Chunks kept beyond the buffer before eviction
+    private static final float FRUIT_LIGHT_RADIUS = Block.SIZE * 2.5f;
+    private static final float FRUIT_LIGHT_INTENSITY = 0.6f;
+    private static final float REBUILD_DELAY = 0.1f; // Seconds of edits coalesced into one chunk rebuild
+    private static final float REBASE_DISTANCE = Chunk.WIDTH * 256; // Avatar distance from the origin that moves it
+    private int seed = DEFAULT_SEED;
+    private int treeArchetypeCount = DEFAULT_TREE_ARCHETYPES;
+    private int crowdSize = 0;
+    private final TreeMap<Integer, Chunk> loadedChunks = new TreeMap<>();
+    private final TreeSet<Integer> dirtyChunks = new TreeSet<>();
+    private float rebuildCountdown = 0;
     private Vector2 windowDimensions;
     private Terrain terrain;
+    private Flora flora;
+    private ColumnHeightCache columnHeights;
+    private Minimap minimap;
+    private NightLighting nightLighting;
+    private Crowd crowd;
+    private final List<ParticleEmitter> weatherEmitters = new ArrayList<>();
     private Avatar avatar;
+    private final LayerBudgetGovernor budgetGovernor = new LayerBudgetGovernor();
+    private final ParallelUpdateExecutor parallelExecutor = new ParallelUpdateExecutor();
+    private boolean parallelUpdates = false;
+    private AdaptiveWorldBuffer worldBuffer;
+    // Jump actions of the loaded trees' trunks, and of the canopies of the detailed trees
+    private final Map<Tree, List<Runnable>> loadedTrees = new HashMap<>();
+    private final Map<Tree, List<Runnable>> canopyJumpActions = new HashMap<>();
+    // Flowers of the detailed trees hidden by the budget governor, restored when it recovers
+    private final Map<Tree, List<Flower>> thinnedFlowers = new HashMap<>();
+    private boolean flowersThinned = false;
+    private Path recordPath;
+    private Path replayPath;
+    private InputRecorder inputRecorder;
+    private Thread recorderShutdownHook; // Closes the recorder if the game exits while recording
+    private InputReplay inputReplay;
+    private final Deque<FruitRespawn> pendingRespawns = new ArrayDeque<>();
+    private final WorldOrigin origin = new WorldOrigin();
+    private final FruitPickupGrid fruitPickupGrid = new FruitPickupGrid(origin);
+    private final List<FruitPickupGrid.Pickup> pickups = new ArrayList<>();
+    private WorldClock worldClock;
+    // Fixed-timestep simulation state
+    private float fixedTimeStep = DEFAULT_FIXED_TIME_STEP;
+    private int maxSubSteps = DEFAULT_MAX_SUB_STEPS;
+    private float timeScale = 1;
+    private boolean headless = false;
+    private float timeAccumulator = 0;
+    private Vector2 previousAvatarPosition;
+    private Vector2 simulatedAvatarPosition;
 
     /**
      * Initializes the game and sets up the game objects.
@@ -52,64 +125,351 @@ public class PepseGameManager extends GameManager {
     public void initializeGame(ImageReader imageReader, SoundReader soundReader,
                                UserInputListener inputListener, WindowController windowController) {
         super.initializeGame(imageReader, soundReader, inputListener, windowController);
+        inputListener = setUpInputTrace(inputListener);
+        timeAccumulator = 0;
+        previousAvatarPosition = null;
+        simulatedAvatarPosition = null;
 
         windowDimensions = windowController.getWindowDimensions();
-        minX = -WORLD_BUFFER;
-        maxX = (int) windowDimensions.x() + WORLD_BUFFER;
+        loadedChunks.clear();
+        dirtyChunks.clear();
+        parallelExecutor.clear();
+        origin.moveTo(0);
+        worldBuffer = new AdaptiveWorldBuffer(fixedTimeStep);
         GameObjectCollection gameObjects = gameObjects();
+        // Fruits are picked up through the pickup grid, not the collision pass
         gameObjects().layers().shouldLayersCollide(
                 LayerManager.getLayer(LayerManager.GameLayer.AVATAR),
                 LayerManager.getLayer(LayerManager.GameLayer.FRUIT),
-                true);
+                false);
         gameObjects().layers().shouldLayersCollide(
                 LayerManager.getLayer(LayerManager.GameLayer.AVATAR),
                 LayerManager.getLayer(LayerManager.GameLayer.TERRAIN),
                 true);
 
-        createSky(gameObjects, windowDimensions);
-        terrain = new Terrain(windowDimensions, SEED);
+        terrain = new Terrain(windowDimensions, seed, origin);
+        flora = new Flora(terrain::groundHeightAt, seed, treeArchetypeCount, terrain.getBiomeField(), origin);
+        columnHeights = new ColumnHeightCache(terrain);
         createDayNightCycle(gameObjects, windowDimensions);
+        createSky(gameObjects, windowDimensions);
         createAvatar(gameObjects, inputListener, imageReader, windowController);
-        createWorldInRange(minX, maxX);
+        createMinimap(gameObjects, windowDimensions);
+        createNightLighting(gameObjects, windowDimensions);
+        createParallaxBackground(gameObjects, windowDimensions);
+        createWeather(gameObjects, windowDimensions);
+        createCrowd(gameObjects, imageReader, windowDimensions);
+        updateTerrainFocus();
+        generateInfiniteWorld();
+    }
+
+    /**
+     * Records the avatar's input and the frame times of the session into a trace file.
+     * Must be called before the game is run.
+     *
+     * @param recordPath The trace file to write.
+     */
+    public void recordInputTo(Path recordPath) {
+        this.recordPath = recordPath;
+    }
+
+    /**
+     * Replays the avatar's input and the frame times of a recorded session.
+     * Together with the same seed, this reproduces the same world and avatar path.
+     * Must be called before the game is run.
+     *
+     * @param replayPath The trace file to replay.
+     */
+    public void replayInputFrom(Path replayPath) {
+        this.replayPath = replayPath;
+    }
+
+    /**
+     * Starts recording or replaying the input, if requested.
+     *
+     * @param inputListener The live input listener.
+     * @return The input listener the avatar should read from.
+     */
+    private UserInputListener setUpInputTrace(UserInputListener inputListener) {
+        if (inputRecorder != null) {
+            Runtime.getRuntime().removeShutdownHook(recorderShutdownHook);
+            inputRecorder.close();
+            inputRecorder = null;
+        }
+        if (replayPath != null) {
+            inputReplay = new InputReplay(replayPath);
+            return inputReplay.wrap(inputListener);
+        }
+        if (recordPath != null) {
+            InputRecorder recorder = new InputRecorder(recordPath, inputListener);
+            recorderShutdownHook = new Thread(recorder::close);
+            Runtime.getRuntime().addShutdownHook(recorderShutdownHook);
+            inputRecorder = recorder;
+        }
+        return inputListener;
+    }
+
+    /**
+     * Sets the length of a single simulation step, independent of the frame rate.
+     *
+     * @param fixedTimeStep The simulated time of one step, in seconds.
+     */
+    public void setFixedTimeStep(float fixedTimeStep) {
+        this.fixedTimeStep = fixedTimeStep;
+    }
+
+    /**
+     * Sets the maximal number of simulation steps run in one frame. When the frame
+     * rate drops further, simulated time is dropped instead of piling up.
+     * Ignored in headless mode.
+     *
+     * @param maxSubSteps The maximal number of steps per frame.
+     */
+    public void setMaxSubSteps(int maxSubSteps) {
+        this.maxSubSteps = maxSubSteps;
+    }
+
+    /**
+     * Sets the seed the world is generated from. Must be called before the game is initialized.
+     *
+     * @param seed The world seed.
+     */
+    public void setSeed(int seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the number of tree archetypes trees are instantiated from, trading visual
+     * variety against generation speed. Applies to trees generated from now on.
+     *
+     * @param treeArchetypeCount The number of archetypes, or 0 to draw every tree's layout.
+     */
+    public void setTreeArchetypeCount(int treeArchetypeCount) {
+        this.treeArchetypeCount = treeArchetypeCount;
+    }
+
+    /**
+     * Sets whether isolated objects, such as flowers, are updated in parallel batches,
+     * one per chunk, before the sequential update of the other objects.
+     * Must be called before the game is initialized.
+     *
+     * @param parallelUpdates True to update isolated objects in parallel.
+     */
+    public void setParallelUpdates(boolean parallelUpdates) {
+        this.parallelUpdates = parallelUpdates;
+    }
+
+    /**
+     * Sets the number of walkers sharing the world with the avatar.
+     * Must be called before the game is initialized.
+     *
+     * @param crowdSize The number of walkers, or 0 for none.
+     */
+    public void setCrowdSize(int crowdSize) {
+        this.crowdSize = crowdSize;
+    }
+
+    /**
+     * Gets the crowd of walkers sharing the world with the avatar.
+     *
+     * @return The crowd, or null if the game has no crowd.
+     */
+    public Crowd getCrowd() {
+        return crowd;
+    }
+
+    /**
+     * Sets how fast simulated time runs relative to frame time.
+     *
+     * @param timeScale The number of simulated seconds per frame second.
+     */
+    public void setTimeScale(float timeScale) {
+        this.timeScale = timeScale;
+    }
+
+    /**
+     * Sets whether the game runs without a display. Headless games step the
+     * simulation without a cap and without interpolating render positions, so the
+     * simulation can run faster than real time.
+     *
+     * @param headless True if the game runs without a display.
+     */
+    public void setHeadless(boolean headless) {
+        this.headless = headless;
+    }
+
+    /**
+     * Gets the clock owning the time of day of the world.
+     *
+     * @return The world clock.
+     */
+    public WorldClock getWorldClock() {
+        return worldClock;
+    }
+
+    /**
+     * Gets the avatar of the game.
+     *
+     * @return The avatar.
+     */
+    public Avatar getAvatar() {
+        return avatar;
+    }
+
+    /**
+     * Counts the live objects of the game by type, together with the avatar's jump
+     * actions, the fruit respawns still pending and the fruits in the pickup grid. Counts are taken from the game
+     * object collection itself, so objects that escaped eviction are included.
+     *
+     * @return The counts, keyed by object type name.
+     */
+    public Map<String, Integer> getLiveObjectCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (GameObject obj : gameObjects()) {
+            counts.merge(obj.getClass().getSimpleName(), 1, Integer::sum);
+        }
+        counts.put(JUMP_LISTENERS_COUNT, avatar.getJumpListenerCount());
+        counts.put(PENDING_RESPAWNS_COUNT, pendingRespawns.size());
+        counts.put(PICKUP_GRID_COUNT, fruitPickupGrid.size());
+        counts.put(PARALLEL_OBJECTS_COUNT, parallelExecutor.size());
+        return counts;
+    }
+
+    /**
+     * Gets the governor that keeps the live objects of each layer under budget.
+     *
+     * @return The budget governor, exposing current usage versus budget.
+     */
+    public LayerBudgetGovernor getBudgetGovernor() {
+        return budgetGovernor;
     }
 
     /**
      * Creates the sky and adds it to the game objects.
+     * The sky's colour follows the world clock, which also provides the night darkness.
      *
      * @param gameObjects      The collection of game objects.
      * @param windowDimensions The dimensions of the game window.
      */
     private void createSky(GameObjectCollection gameObjects, Vector2 windowDimensions) {
-        gameObjects.addGameObject(Sky.create(windowDimensions),
+        gameObjects.addGameObject(Sky.create(windowDimensions, worldClock),
                 LayerManager.getLayer(LayerManager.GameLayer.SKY));
     }
 
+    /**
+     * Creates the minimap and adds it to the game objects.
+     * Must be called once the avatar exists.
+     *
+     * @param gameObjects      The collection of game objects.
+     * @param windowDimensions The dimensions of the game window.
+     */
+    private void createMinimap(GameObjectCollection gameObjects, Vector2 windowDimensions) {
+        minimap = new Minimap(windowDimensions, avatar::getCenter, origin, terrain.groundHeightAt(0));
+        gameObjects.addGameObject(minimap, LayerManager.getLayer(LayerManager.GameLayer.MINIMAP));
+    }
+
+    /**
+     * Creates the night darkness with its light sources and adds it to the game objects.
+     * The avatar carries a lantern; glowing fruits add their lights as they are shown.
+     * Must be called once the camera is set.
+     *
+     * @param gameObjects      The collection of game objects.
+     * @param windowDimensions The dimensions of the game window.
+     */
+    private void createNightLighting(GameObjectCollection gameObjects, Vector2 windowDimensions) {
+        nightLighting = new NightLighting(windowDimensions, camera(), origin, worldClock, avatar::getCenter,
+                terrain.groundHeightAt(0));
+        gameObjects.addGameObject(nightLighting, LayerManager.getLayer(LayerManager.GameLayer.NIGHT));
+    }
+
+    /**
+     * Draws the columns and trees of a chunk on the minimap.
+     *
+     * @param chunk The generated or rebuilt chunk.
+     */
+    private void drawChunkOnMinimap(Chunk chunk) {
+        for (int column = chunk.getMinX() / Block.SIZE; column < chunk.getMaxX() / Block.SIZE; column++) {
+            minimap.updateColumn(column, columnHeights.surfaceOfColumn(column));
+        }
+        for (Tree tree : chunk.getTrees()) {
+            minimap.markTree(tree.getCenter().x(), tree.getTopLeftCorner().y());
+        }
+    }
+
+    /**
+     * Creates the parallax bands behind the terrain and adds them to the game objects.
+     * Must be called once the camera is set.
+     *
+     * @param gameObjects      The collection of game objects.
+     * @param windowDimensions The dimensions of the game window.
+     */
+    private void createParallaxBackground(GameObjectCollection gameObjects, Vector2 windowDimensions) {
+        for (ParallaxBackground.Band band : ParallaxBackground.Band.values()) {
+            for (GameObject tile : ParallaxBackground.create(band, windowDimensions, camera(), origin, seed)) {
+                gameObjects.addGameObject(tile, LayerManager.getLayer(band.getGameLayer()));
+            }
+        }
+    }
+
+    /**
+     * Creates the weather particle emitters and adds them to the game objects.
+     * Must be called once the camera is set.
+     *
+     * @param gameObjects      The collection of game objects.
+     * @param windowDimensions The dimensions of the game window.
+     */
+    private void createWeather(GameObjectCollection gameObjects, Vector2 windowDimensions) {
+        weatherEmitters.clear();
+        weatherEmitters.addAll(Weather.create(windowDimensions, camera(), worldClock, columnHeights, seed));
+        for (ParticleEmitter emitter : weatherEmitters) {
+            gameObjects.addGameObject(emitter, LayerManager.getLayer(LayerManager.GameLayer.WEATHER));
+        }
+    }
+
+    /**
+     * Creates the crowd of walkers and adds it to the game objects, if the game has one.
+     * Must be called once the camera is set.
+     *
+     * @param gameObjects      The collection of game objects.
+     * @param imageReader      Responsible for reading images.
+     * @param windowDimensions The dimensions of the game window.
+     */
+    private void createCrowd(GameObjectCollection gameObjects, ImageReader imageReader,
+                             Vector2 windowDimensions) {
+        crowd = null;
+        if (crowdSize <= 0) {
+            return;
+        }
+        crowd = new Crowd(crowdSize, windowDimensions, camera(), imageReader, columnHeights,
+                fruitPickupGrid, this::eatFruit, avatar::getCenter, seed);
+        gameObjects.addGameObject(crowd, LayerManager.getLayer(LayerManager.GameLayer.CROWD));
+    }
+
     /**
      * Creates the terrain and adds it to the game objects.
+     * Terrain is never thinned by the budget governor.
      *
-     * @param gameObjects The collection of game objects.
-     * @return The created Terrain object.
+     * @return The created blocks.
      */
-    private void createTerrain(GameObjectCollection gameObjects, int minX, int maxX) {
+    private List<Block> createTerrain(int minX, int maxX) {
         List<Block> blocks = terrain.createInRange(minX, maxX);
-        blocks.forEach(block -> gameObjects.addGameObject(block,
-                LayerManager.getLayer(LayerManager.GameLayer.TERRAIN)));
+        blocks.forEach(block -> addWorldObject(block, LayerManager.GameLayer.TERRAIN));
+        return blocks;
     }
 
     /**
-     * Creates the day-night cycle and adds the sun, night, and sun halo to the game objects.
+     * Creates the world clock and adds the sun and sun halo to the game objects.
      *
      * @param gameObjects      The collection of game objects.
      * @param windowDimensions The dimensions of the game window.
      */
     private void createDayNightCycle(GameObjectCollection gameObjects, Vector2 windowDimensions) {
         float groundHeightAtMiddle = terrain.groundHeightAt(windowDimensions.x() / 2);
-        GameObject sun = Sun.create(windowDimensions, CYCLE_LENGTH, groundHeightAtMiddle);
+        worldClock = new WorldClock(CYCLE_LENGTH, windowDimensions, groundHeightAtMiddle);
+        pendingRespawns.clear();
+        GameObject sun = Sun.create(windowDimensions, worldClock);
         gameObjects.addGameObject(sun,
                 LayerManager.getLayer(LayerManager.GameLayer.SUN));
-        gameObjects.addGameObject(Night.create(windowDimensions, (float) CYCLE_LENGTH / 2),
-                LayerManager.getLayer(LayerManager.GameLayer.NIGHT));
-        gameObjects.addGameObject(SunHalo.create(sun),
+        gameObjects.addGameObject(SunHalo.create(sun, worldClock),
                 LayerManager.getLayer(LayerManager.GameLayer.SUN_HALO));
     }
 
@@ -123,7 +483,7 @@ public class PepseGameManager extends GameManager {
      */
     private void createAvatar(GameObjectCollection gameObjects, UserInputListener inputListener,
                               ImageReader imageReader, WindowController windowController) {
-        float groundHeightAt0 = terrain.groundHeightAt(0f);
+        float groundHeightAt0 = terrain.groundHeightAt(0);
         Vector2 initialAvatarLocation = new Vector2(windowController.getWindowDimensions().x() / 2,
                 groundHeightAt0 - AVATAR_HEIGHT * 2);
         avatar = new Avatar(initialAvatarLocation.subtract(Vector2.of(AVATAR_HEIGHT, AVATAR_HEIGHT).mult(0.5f)),
@@ -139,121 +499,788 @@ public class PepseGameManager extends GameManager {
     }
 
     /**
-     * Handles the collision between the avatar and a fruit.
+     * Picks up the fruits the avatar overlaps, testing only the grid cells around it.
+     */
+    private void pickUpFruits() {
+        fruitPickupGrid.collectOverlapping(avatar, pickups);
+        for (FruitPickupGrid.Pickup pickup : pickups) {
+            if (eatFruit(pickup.tree(), pickup.fruit())) {
+                avatar.addEnergy(EATEN_FRUIT_ENERGY);
+            }
+        }
+        pickups.clear();
+    }
+
+    /**
+     * Eats a fruit, by the avatar or by a walker, and schedules it to grow back.
+     * The eater gains the fruit's energy only if this returns true.
      *
+     * @param tree  The tree the fruit grows on.
      * @param fruit The fruit object.
+     * @return True if the fruit was eaten, false if someone else already ate it.
      */
-    private void handleFruitCollision(Fruit fruit) {
+    private boolean eatFruit(Tree tree, Fruit fruit) {
+        if (fruit.isEaten()) {
+            return false;
+        }
+        fruit.setEaten(true);
+        fruitPickupGrid.remove(fruit);
+        nightLighting.removeLight(fruit);
+        removeWorldObject(fruit, LayerManager.GameLayer.FRUIT);
+        minimap.markFruit(fruit.getCenter().x(), fruit.getCenter().y(), true);
+        FruitEatenEvent eatenEvent = new FruitEatenEvent();
+        if (eatenEvent.shouldCommit()) {
+            eatenEvent.x = (float) origin.toAbsoluteX(fruit.getCenter().x());
+            eatenEvent.y = fruit.getCenter().y();
+            eatenEvent.energyGained = EATEN_FRUIT_ENERGY;
+            eatenEvent.commit();
+        }
+        pendingRespawns.add(new FruitRespawn(tree, fruit, worldClock.getTime() + CYCLE_LENGTH));
+        return true;
+    }
 
-        if (avatar.getTag().equals(AVATAR_TAG)) {
-            avatar.addEnergy(EATEN_FRUIT_ENERGY);
-            gameObjects().removeGameObject(fruit,
-                    LayerManager.getLayer(LayerManager.GameLayer.FRUIT));
-            new ScheduledTask(
-                    avatar,
-                    CYCLE_LENGTH,
-                    false,
-                    () -> gameObjects().addGameObject(fruit,
-                            LayerManager.getLayer(LayerManager.GameLayer.FRUIT))
-            );
+    /**
+     * Respawns the eaten fruits whose time came, according to the world clock.
+     */
+    private void respawnDueFruits() {
+        while (!pendingRespawns.isEmpty() && pendingRespawns.peek().time() <= worldClock.getTime()) {
+            FruitRespawn respawn = pendingRespawns.poll();
+            respawnFruit(respawn.tree(), respawn.fruit());
+        }
+    }
+
+    /**
+     * Adds an eaten fruit back to the game objects, if its tree is still shown in detail.
+     *
+     * @param tree  The tree the fruit grows on.
+     * @param fruit The fruit object.
+     */
+    private void respawnFruit(Tree tree, Fruit fruit) {
+        fruit.setEaten(false);
+        minimap.markFruit(fruit.getCenter().x(), fruit.getCenter().y(), false);
+        if (!tree.isDetailed()) {
+            return;
+        }
+        addWorldObject(fruit, LayerManager.GameLayer.FRUIT);
+        fruitPickupGrid.add(tree, fruit);
+        nightLighting.setLight(fruit, fruit.getCenter(), FRUIT_LIGHT_RADIUS, FRUIT_LIGHT_INTENSITY);
+        FruitRespawnedEvent event = new FruitRespawnedEvent();
+        if (event.shouldCommit()) {
+            event.x = (float) origin.toAbsoluteX(fruit.getCenter().x());
+            event.y = fruit.getCenter().y();
+            event.commit();
         }
     }
 
     /**
      * Creates trees and adds them to the game objects.
+     * Trees near the camera are shown in detail, the others by their impostor.
      *
-     * @param gameObjects The collection of game objects.
+     * @return The created trees.
      */
-    private void createTrees(GameObjectCollection gameObjects, int leftBound, int rightBound) {
-        List<Tree> trees = new Flora(terrain::groundHeightAt, SEED)
-                .createInRange(leftBound, rightBound);
-        List<FloraGameObject> floraGameObjects = new LinkedList<>();
+    private List<Tree> createTrees(int leftBound, int rightBound) {
+        List<Tree> trees = flora.createInRange(leftBound, rightBound);
+        float cameraCenterX = camera().screenToWorldCoords(windowDimensions.mult(0.5f)).x();
 
         trees.forEach(tree -> {
-            floraGameObjects.addAll(tree.getAllTreeElements());
-            gameObjects.addGameObject(tree,
-                    LayerManager.getLayer(LayerManager.GameLayer.TREE));
-            tree.getFlowers().forEach(flower -> gameObjects.addGameObject(flower,
-                    LayerManager.getLayer(LayerManager.GameLayer.FLOWER)));
-            tree.getFruits().forEach(fruit -> {
-                gameObjects.addGameObject(fruit,
-                        LayerManager.getLayer(LayerManager.GameLayer.FRUIT));
-                fruit.setCollisionCallback((other) -> handleFruitCollision(fruit));
-            });
+            addWorldObject(tree, LayerManager.GameLayer.TREE);
+            List<Runnable> trunkJumpActions = List.of(tree.onJump());
+            loadedTrees.put(tree, trunkJumpActions);
+            avatar.addOnJump(trunkJumpActions);
+            if (Math.abs(tree.getCenter().x() - cameraCenterX) <= getTreeDetailDistance()) {
+                showTreeDetail(tree);
+            } else {
+                addWorldObject(tree.getImpostor(), LayerManager.GameLayer.TREE_IMPOSTOR);
+            }
+        });
+
+        return trees;
+    }
+
+    /**
+     * Gets the distance from the camera center within which trees are shown in detail.
+     *
+     * @return The detail distance.
+     */
+    private float getTreeDetailDistance() {
+        return windowDimensions.x() / 2 + TREE_DETAIL_MARGIN;
+    }
+
+    /**
+     * Switches the loaded trees between their detailed and impostor forms,
+     * depending on their distance from the camera.
+     */
+    private void updateTreeDetail() {
+        float cameraCenterX = camera().screenToWorldCoords(windowDimensions.mult(0.5f)).x();
+        float detailDistance = getTreeDetailDistance();
+        for (Tree tree : loadedTrees.keySet()) {
+            float distance = Math.abs(tree.getCenter().x() - cameraCenterX);
+            if (!tree.isDetailed() && distance <= detailDistance) {
+                removeWorldObject(tree.getImpostor(), LayerManager.GameLayer.TREE_IMPOSTOR);
+                showTreeDetail(tree);
+            } else if (tree.isDetailed() && distance > detailDistance + TREE_DETAIL_HYSTERESIS) {
+                hideTreeDetail(tree, null);
+                addWorldObject(tree.getImpostor(), LayerManager.GameLayer.TREE_IMPOSTOR);
+            }
+        }
+    }
+
+    /**
+     * Adds the flowers and fruits of a tree to the game objects.
+     * Flowers may be thinned out by the budget governor.
+     *
+     * @param tree The tree to show in detail.
+     */
+    private void showTreeDetail(Tree tree) {
+        tree.materialize();
+        List<Flower> thinned = new LinkedList<>();
+        int flowerIndex = 0;
+        for (Flower flower : tree.getFlowers()) {
+            if (budgetGovernor.shouldAddFlower(flowerIndex++)) {
+                addWorldObject(flower, LayerManager.GameLayer.FLOWER);
+            } else {
+                thinned.add(flower);
+            }
+        }
+        thinnedFlowers.put(tree, thinned);
+        tree.getFruits().forEach(fruit -> {
+            if (!fruit.isEaten()) {
+                addWorldObject(fruit, LayerManager.GameLayer.FRUIT);
+                fruitPickupGrid.add(tree, fruit);
+                nightLighting.setLight(fruit, fruit.getCenter(), FRUIT_LIGHT_RADIUS, FRUIT_LIGHT_INTENSITY);
+            }
         });
+        registerCanopyJumpActions(tree);
+    }
 
-        avatar.addOnJump(floraGameObjects.stream().map(FloraGameObject::onJump).toList());
+    /**
+     * Registers the jump actions of the shown flowers and of the fruits of a detailed tree,
+     * replacing the ones registered before, so thinned flowers do not react to jumps.
+     *
+     * @param tree The detailed tree.
+     */
+    private void registerCanopyJumpActions(Tree tree) {
+        List<Runnable> previousActions = canopyJumpActions.remove(tree);
+        if (previousActions != null) {
+            avatar.removeOnJump(previousActions);
+        }
+        List<FloraGameObject> floraGameObjects = new LinkedList<>(tree.getFlowers());
+        floraGameObjects.removeAll(thinnedFlowers.get(tree));
+        floraGameObjects.addAll(tree.getFruits());
+
+        List<Runnable> jumpActions = floraGameObjects.stream().map(FloraGameObject::onJump).toList();
+        canopyJumpActions.put(tree, jumpActions);
+        avatar.addOnJump(jumpActions);
+    }
+
+    /**
+     * Removes the flowers and fruits of a tree from the game objects.
+     *
+     * @param tree  The tree to stop showing in detail.
+     * @param event The eviction event counting the removed objects, or null.
+     */
+    private void hideTreeDetail(Tree tree, ObjectsEvictedEvent event) {
+        for (Flower flower : tree.getFlowers()) {
+            if (removeWorldObject(flower, LayerManager.GameLayer.FLOWER) && event != null) {
+                event.flowers++;
+            }
+        }
+        for (Fruit fruit : tree.getFruits()) {
+            fruitPickupGrid.remove(fruit);
+            nightLighting.removeLight(fruit);
+            if (removeWorldObject(fruit, LayerManager.GameLayer.FRUIT) && event != null) {
+                event.fruits++;
+            }
+        }
+        avatar.removeOnJump(canopyJumpActions.remove(tree));
+        thinnedFlowers.remove(tree);
+        tree.dematerialize();
     }
 
     @Override
     public void update(float deltaTime) {
-        super.update(deltaTime);
+        long frameStart = System.nanoTime();
+        if (inputReplay != null) {
+            float recordedDeltaTime = inputReplay.nextFrame();
+            if (!inputReplay.isFinished()) {
+                deltaTime = recordedDeltaTime;
+            }
+        } else if (inputRecorder != null) {
+            inputRecorder.recordFrame(deltaTime);
+        }
+
+        restoreSimulatedPositions();
+        timeAccumulator += deltaTime * timeScale;
+        int steps = 0;
+        while (timeAccumulator >= fixedTimeStep && (headless || steps < maxSubSteps)) {
+            previousAvatarPosition = avatar.getTopLeftCorner();
+            simulate(fixedTimeStep);
+            timeAccumulator -= fixedTimeStep;
+            steps++;
+        }
+        if (!headless) {
+            // Drop the time we could not catch up with, rather than spiralling
+            timeAccumulator = Math.min(timeAccumulator, fixedTimeStep);
+            interpolateRenderPositions(timeAccumulator / fixedTimeStep);
+        }
+        // The camera is updated every frame, even one without steps, from the drawn avatar position
+        camera().update(deltaTime);
+        if (crowd != null && !headless) {
+            crowd.render();
+        }
+        if (!headless) {
+            weatherEmitters.forEach(ParticleEmitter::render);
+        }
+        worldBuffer.recordFrameWork(System.nanoTime() - frameStart);
+    }
+
+    /**
+     * Runs one fixed step of the simulation. The game objects, with their physics, collisions,
+     * transitions and scheduled tasks, are stepped here; the camera is not, since it only
+     * follows what is drawn.
+     *
+     * @param timeStep The simulated time of the step.
+     */
+    private void simulate(float timeStep) {
+        worldClock.update(timeStep);
+        parallelExecutor.update(timeStep);
+        gameObjects().update(timeStep);
+        pickUpFruits();
+        respawnDueFruits();
+        updateTerrainFocus();
+        rebuildDirtyChunks(timeStep);
+        rebaseOriginIfFar();
+        generateInfiniteWorld();
+        updateTreeDetail();
+        if (budgetGovernor.update()) {
+            applyDegradation();
+        }
+    }
+
+    /**
+     * Moves the avatar back to its simulated position, undoing the render interpolation.
+     */
+    private void restoreSimulatedPositions() {
+        if (simulatedAvatarPosition != null) {
+            avatar.setTopLeftCorner(simulatedAvatarPosition);
+            simulatedAvatarPosition = null;
+        }
+    }
+
+    /**
+     * Draws the avatar between its last two simulated positions, so motion stays smooth
+     * when the frame rate and the simulation rate differ.
+     *
+     * @param alpha How far the frame is between the last step and the next one, in [0, 1].
+     */
+    private void interpolateRenderPositions(float alpha) {
+        if (previousAvatarPosition == null) {
+            return;
+        }
+        simulatedAvatarPosition = avatar.getTopLeftCorner();
+        avatar.setTopLeftCorner(previousAvatarPosition.add(
+                simulatedAvatarPosition.subtract(previousAvatarPosition).mult(alpha)));
+    }
+
+    /**
+     * Applies the current degradation level of the budget governor to the loaded world.
+     */
+    private void applyDegradation() {
+        boolean thin = budgetGovernor.getDegradationLevel() != LayerBudgetGovernor.DegradationLevel.NONE;
+        if (thin && !flowersThinned) {
+            thinDetailedFlowers();
+        } else if (!thin && flowersThinned) {
+            restoreThinnedFlowers();
+        }
+        flowersThinned = thin;
+        generateInfiniteWorld();
+    }
+
+    /**
+     * Removes part of the flowers of the detailed trees, keeping the trees and fruits intact.
+     * Done once, when the governor starts thinning flowers.
+     */
+    private void thinDetailedFlowers() {
+        for (Map.Entry<Tree, List<Flower>> entry : thinnedFlowers.entrySet()) {
+            int flowerIndex = 0;
+            for (Flower flower : entry.getKey().getFlowers()) {
+                if (!budgetGovernor.shouldAddFlower(flowerIndex++)
+                        && removeWorldObject(flower, LayerManager.GameLayer.FLOWER)) {
+                    entry.getValue().add(flower);
+                }
+            }
+            registerCanopyJumpActions(entry.getKey());
+        }
+    }
+
+    /**
+     * Adds back the flowers of the detailed trees that were thinned, once the governor stops thinning.
+     */
+    private void restoreThinnedFlowers() {
+        for (Map.Entry<Tree, List<Flower>> entry : thinnedFlowers.entrySet()) {
+            entry.getValue().forEach(flower -> addWorldObject(flower, LayerManager.GameLayer.FLOWER));
+            entry.getValue().clear();
+            registerCanopyJumpActions(entry.getKey());
+        }
+    }
+
+    /**
+     * Removes the terrain block at a world position, if there is one.
+     * The change shows once the chunk is rebuilt, within a short delay.
+     *
+     * @param worldPosition A position inside the block's cell.
+     * @return True if a block was removed.
+     */
+    public boolean removeBlockAt(Vector2 worldPosition) {
+        return editBlockAt(worldPosition, false);
+    }
+
+    /**
+     * Places a terrain block at a world position, if its cell is empty and clear of the avatar.
+     * The change shows once the chunk is rebuilt, within a short delay.
+     *
+     * @param worldPosition A position inside the cell.
+     * @return True if a block was placed.
+     */
+    public boolean placeBlockAt(Vector2 worldPosition) {
+        return editBlockAt(worldPosition, true);
+    }
+
+    /**
+     * Edits the terrain cell at a world position and marks its chunk for rebuilding.
+     *
+     * @param worldPosition A position inside the cell.
+     * @param solid         True to place a block, false to remove it.
+     * @return True if the cell changed.
+     */
+    private boolean editBlockAt(Vector2 worldPosition, boolean solid) {
+        int cellX = origin.cellAt(worldPosition.x(), Block.SIZE);
+        int cellY = (int) Math.floor(worldPosition.y() / Block.SIZE);
+        if (solid && overlapsAvatar(cellX, cellY)) {
+            return false;
+        }
+        if (!terrain.setBlockAt(cellX, cellY, solid)) {
+            return false;
+        }
+        // The heights are invalidated now, as the chunk may be evicted before it is rebuilt
+        columnHeights.invalidate(cellX * Block.SIZE, (cellX + 1) * Block.SIZE);
+        markChunkDirty(TerrainEdits.chunkIndexOf(cellX));
+        return true;
+    }
+
+    /**
+     * Marks a chunk for rebuilding, if it is loaded.
+     *
+     * @param chunkIndex The index of the chunk.
+     */
+    private void markChunkDirty(int chunkIndex) {
+        if (loadedChunks.containsKey(chunkIndex)) {
+            if (dirtyChunks.isEmpty()) {
+                rebuildCountdown = REBUILD_DELAY;
+            }
+            dirtyChunks.add(chunkIndex);
+        }
+    }
+
+    /**
+     * Moves the terrain focus along with the avatar, so the cave cells around it are
+     * created as blocks, and marks the chunks around the old and new focus for rebuilding.
+     */
+    private void updateTerrainFocus() {
+        boolean hadFocus = terrain.hasFocus();
+        int previousColumn = terrain.getFocusColumn();
+        Vector2 center = avatar.getCenter();
+        if (!terrain.setFocus(origin.cellAt(center.x(), Block.SIZE), (int) Math.floor(center.y() / Block.SIZE))) {
+            return;
+        }
+        if (hadFocus) {
+            markChunksAround(previousColumn);
+        }
+        if (terrain.hasFocus()) {
+            markChunksAround(terrain.getFocusColumn());
+        }
+    }
+
+    /**
+     * Marks the chunks within reach of a terrain focus for rebuilding.
+     *
+     * @param focusColumn The column of the focus, in blocks.
+     */
+    private void markChunksAround(int focusColumn) {
+        for (int chunkIndex = TerrainEdits.chunkIndexOf(focusColumn - Terrain.FOCUS_COLUMNS);
+             chunkIndex <= TerrainEdits.chunkIndexOf(focusColumn + Terrain.FOCUS_COLUMNS); chunkIndex++) {
+            markChunkDirty(chunkIndex);
+        }
+    }
+
+    /**
+     * Checks whether a terrain cell overlaps the avatar.
+     *
+     * @param cellX The column of the cell.
+     * @param cellY The row of the cell.
+     * @return True if a block in the cell would overlap the avatar.
+     */
+    private boolean overlapsAvatar(int cellX, int cellY) {
+        Vector2 topLeft = avatar.getTopLeftCorner();
+        Vector2 bottomRight = topLeft.add(avatar.getDimensions());
+        float cellMinX = origin.toLocalX((double) cellX * Block.SIZE);
+        float cellMinY = cellY * Block.SIZE;
+        return cellMinX < bottomRight.x() && topLeft.x() < cellMinX + Block.SIZE
+                && cellMinY < bottomRight.y() && topLeft.y() < cellMinY + Block.SIZE;
+    }
+
+    /**
+     * Rebuilds the terrain of the edited chunks, once the edits of the last short delay
+     * were coalesced. Only the blocks of edited cells are added or removed.
+     *
+     * @param timeStep The simulated time of the step.
+     */
+    private void rebuildDirtyChunks(float timeStep) {
+        if (dirtyChunks.isEmpty()) {
+            return;
+        }
+        rebuildCountdown -= timeStep;
+        if (rebuildCountdown > 0) {
+            return;
+        }
+        for (int index : dirtyChunks) {
+            Chunk chunk = loadedChunks.get(index);
+            if (chunk == null) {
+                continue; // Evicted meanwhile; the edits apply when it is generated again
+            }
+            Terrain.Rebuild rebuild = terrain.rebuildInRange(chunk.getMinX(), chunk.getMaxX(), chunk.getBlocks());
+            rebuild.removed().forEach(block -> removeWorldObject(block, LayerManager.GameLayer.TERRAIN));
+            rebuild.added().forEach(block -> addWorldObject(block, LayerManager.GameLayer.TERRAIN));
+            Chunk rebuilt = new Chunk(index, rebuild.blocks(), chunk.getTrees());
+            loadedChunks.put(index, rebuilt);
+            columnHeights.invalidate(chunk.getMinX(), chunk.getMaxX());
+            drawChunkOnMinimap(rebuilt);
+        }
+        dirtyChunks.clear();
+    }
+
+    /**
+     * Moves the avatar and the camera to any x-coordinate of the world, standing on the
+     * terrain. Only the chunks on screen at the destination are generated at once; the
+     * old region is evicted in bulk and the buffer around the destination is filled
+     * within the generation budget of the next steps.
+     *
+     * @param x The absolute x-coordinate to move the avatar's center to.
+     */
+    public void teleportTo(double x) {
+        restoreSimulatedPositions();
+        previousAvatarPosition = null;
+        rebaseOrigin(chunkEdgeAt(x));
+        double left = x - AVATAR_HEIGHT / 2f;
+        // Land on the highest block under the avatar, counting placed blocks and skipping removed ones
+        float surfaceY = terrain.surfaceTopAt((int) Math.floor((left + AVATAR_HEIGHT - 1) / Block.SIZE));
+        for (double columnX = left; columnX < left + AVATAR_HEIGHT; columnX += Block.SIZE) {
+            surfaceY = Math.min(surfaceY, terrain.surfaceTopAt((int) Math.floor(columnX / Block.SIZE)));
+        }
+        avatar.setTopLeftCorner(Vector2.of(origin.toLocalX(left), surfaceY - AVATAR_HEIGHT));
+        avatar.setVelocity(Vector2.ZERO);
+        camera().setCenter(avatar.getCenter());
         generateInfiniteWorld();
+        updateTreeDetail();
+    }
+
+    /**
+     * Gets the world origin, the absolute x-coordinate that game object positions are relative to.
+     *
+     * @return The world origin.
+     */
+    public WorldOrigin getWorldOrigin() {
+        return origin;
+    }
+
+    /**
+     * Moves the world origin under the avatar once it got far from it, so positions
+     * stay small and keep their precision.
+     */
+    private void rebaseOriginIfFar() {
+        if (Math.abs(avatar.getCenter().x()) > REBASE_DISTANCE) {
+            rebaseOrigin(chunkEdgeAt(origin.toAbsoluteX(avatar.getCenter().x())));
+        }
     }
 
     /**
-     * Generates new terrain and trees depending on location of avatar
+     * Moves the world origin, shifting everything positioned relative to it in one pass:
+     * the loaded blocks and trees with all their parts, the avatar, the camera, the walkers
+     * and the weather particles. Everything indexed by absolute position is left as is.
+     *
+     * @param newOriginX The new absolute x-coordinate of the origin, on a chunk edge.
+     */
+    private void rebaseOrigin(long newOriginX) {
+        float shiftX = newOriginX - origin.getX();
+        if (shiftX == 0) {
+            return;
+        }
+        Vector2 offset = Vector2.of(-shiftX, 0);
+        for (Chunk chunk : loadedChunks.values()) {
+            for (Block block : chunk.getBlocks()) {
+                block.setTopLeftCorner(block.getTopLeftCorner().add(offset));
+            }
+            for (Tree tree : chunk.getTrees()) {
+                tree.moveBy(offset);
+            }
+        }
+        avatar.setTopLeftCorner(avatar.getTopLeftCorner().add(offset));
+        camera().setCenter(camera().getCenter().add(offset));
+        if (previousAvatarPosition != null) {
+            previousAvatarPosition = previousAvatarPosition.add(offset);
+        }
+        if (crowd != null) {
+            crowd.shiftOrigin(shiftX);
+        }
+        weatherEmitters.forEach(emitter -> emitter.shiftOrigin(shiftX));
+        origin.moveTo(newOriginX);
+
+        OriginRebasedEvent event = new OriginRebasedEvent();
+        if (event.shouldCommit()) {
+            event.originX = newOriginX;
+            event.shiftX = shiftX;
+            event.commit();
+        }
+    }
+
+    /**
+     * Finds the chunk edge at or left of an absolute x-coordinate.
+     *
+     * @param x The absolute x-coordinate.
+     * @return The absolute x-coordinate of the chunk edge.
+     */
+    private static long chunkEdgeAt(double x) {
+        return Math.floorDiv((long) Math.floor(x), Chunk.WIDTH) * Chunk.WIDTH;
+    }
+
+    /**
+     * Loads the chunks around the camera and evicts the ones that are too far from it.
+     * Chunks on screen are always loaded at once, while chunks in the buffer beyond
+     * the screen edges are loaded nearest first, within the generation budget.
+     * The buffer on each side is chosen by the adaptive world buffer, so more is
+     * generated ahead of a fast avatar and less is kept behind it.
      */
     private void generateInfiniteWorld() {
         float cameraMaxX = camera().screenToWorldCoords(windowDimensions).x();
-        float cameraMinX = camera().screenToWorldCoords(windowDimensions).x() - windowDimensions.x();
-        // right
-        if (cameraMaxX >= maxX) {
-            createWorldInRange(maxX, maxX + WORLD_BUFFER);
-            maxX += WORLD_BUFFER;
-            minX += WORLD_BUFFER;
-            //left
-        } else if (cameraMinX <= minX) {
-            createWorldInRange(minX - WORLD_BUFFER, minX);
-            maxX -= WORLD_BUFFER;
-            minX -= WORLD_BUFFER;
+        float cameraMinX = cameraMaxX - windowDimensions.x();
+        int firstVisible = Chunk.indexAt(origin.toAbsoluteX(cameraMinX));
+        int lastVisible = Chunk.indexAt(origin.toAbsoluteX(cameraMaxX));
+        int margin = budgetGovernor.evictionMargin(EVICTION_MARGIN_CHUNKS * Chunk.WIDTH) / Chunk.WIDTH;
+        worldBuffer.update(avatar.getVelocity().x());
+        int firstBuffered = firstVisible - worldBuffer.getLeftChunks();
+        int lastBuffered = lastVisible + worldBuffer.getRightChunks();
+
+        evictChunksOutside(firstBuffered - margin, lastBuffered + margin);
+        for (int index = firstVisible; index <= lastVisible; index++) {
+            loadChunk(index);
         }
+        loadBufferChunks(firstBuffered, lastBuffered, Chunk.indexAt(origin.toAbsoluteX(avatar.getCenter().x())));
     }
 
     /**
-     * Creates the world in the given range.
+     * Loads the missing chunks of a range, nearest to a center chunk first,
+     * until the generation budget of the step runs out.
+     *
+     * @param first  The first chunk of the range.
+     * @param last   The last chunk of the range.
+     * @param center The chunk to start from.
      */
-    private void createWorldInRange(int leftX, int rightX) {
-        int normaliedminX = BlockUtil.getNearestBlockLocation(leftX);
-        int normailzedMaxX = BlockUtil.getNearestBlockLocation(rightX);
-        createTerrain(gameObjects(), normaliedminX, normailzedMaxX);
-        createTrees(gameObjects(), normaliedminX, normailzedMaxX);
-        removeHiddenObjects();
+    private void loadBufferChunks(int first, int last, int center) {
+        long deadline = System.nanoTime() + worldBuffer.getGenerationBudgetNanos();
+        for (int distance = 0; center - distance >= first || center + distance <= last; distance++) {
+            for (int index : new int[]{center - distance, center + distance}) {
+                if (index < first || index > last || loadedChunks.containsKey(index)) {
+                    continue;
+                }
+                if (System.nanoTime() > deadline) {
+                    return;
+                }
+                loadChunk(index);
+            }
+        }
     }
 
     /**
-     * Removes all hidden objects.
+     * Generates a chunk and adds its objects to the game, if it is not loaded yet.
+     *
+     * @param index The index of the chunk.
      */
-    private void removeHiddenObjects() {
-        for (GameObject obj : gameObjects()) {
-            if (obj.getCenter().x() < minX - WORLD_BUFFER || obj.getCenter().x() > maxX + WORLD_BUFFER) {
-                removeHiddenGameObject(obj);
+    private void loadChunk(int index) {
+        if (loadedChunks.containsKey(index)) {
+            return;
+        }
+        ChunkGeneratedEvent event = new ChunkGeneratedEvent();
+        event.begin();
+        long start = System.nanoTime();
+        int chunkMinX = index * Chunk.WIDTH;
+        int chunkMaxX = chunkMinX + Chunk.WIDTH;
+        List<Block> blocks = createTerrain(chunkMinX, chunkMaxX);
+        List<Tree> trees = createTrees(chunkMinX, chunkMaxX);
+        Chunk chunk = new Chunk(index, blocks, trees);
+        loadedChunks.put(index, chunk);
+        drawChunkOnMinimap(chunk);
+        worldBuffer.recordChunkGenerated(System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.minX = chunkMinX;
+            event.maxX = chunkMaxX;
+            event.blocks = blocks.size();
+            event.trees = trees.size();
+            for (Tree tree : trees) {
+                event.flowers += tree.getFlowerCount();
+                event.fruits += tree.getFruitCount();
             }
+            event.commit();
         }
     }
 
     /**
-     * Removes the game object and find the layer based on his type.
+     * Evicts, in one pass, all the loaded chunks outside a range.
+     *
+     * @param first The first chunk to keep.
+     * @param last  The last chunk to keep.
      */
-    private void removeHiddenGameObject(GameObject object) {
-        if (object instanceof Fruit) {
-            gameObjects().removeGameObject(object, LayerManager.getLayer(LayerManager.GameLayer.FRUIT));
+    private void evictChunksOutside(int first, int last) {
+        SortedMap<Integer, Chunk> before = loadedChunks.headMap(first);
+        SortedMap<Integer, Chunk> after = loadedChunks.tailMap(last, false);
+        if (before.isEmpty() && after.isEmpty()) {
+            return;
+        }
+        ObjectsEvictedEvent event = new ObjectsEvictedEvent();
+        event.begin();
+        List<Chunk> evicted = new ArrayList<>(before.values());
+        evicted.addAll(after.values());
+        before.clear();
+        after.clear();
+        evicted.forEach(chunk -> unloadChunk(chunk, event));
+        event.end();
+        if (event.shouldCommit()) {
+            event.minX = first * Chunk.WIDTH;
+            event.maxX = (last + 1) * Chunk.WIDTH;
+            event.commit();
         }
-        if (object instanceof Tree) {
-            gameObjects().removeGameObject(object, LayerManager.getLayer(LayerManager.GameLayer.TREE));
+    }
+
+    /**
+     * Removes all the objects of a chunk from the game.
+     *
+     * @param chunk The chunk to unload.
+     * @param event The eviction event counting the removed objects.
+     */
+    private void unloadChunk(Chunk chunk, ObjectsEvictedEvent event) {
+        for (Block block : chunk.getBlocks()) {
+            if (removeWorldObject(block, LayerManager.GameLayer.TERRAIN)) {
+                event.blocks++;
+            }
         }
-        if (object instanceof Flower) {
-            gameObjects().removeGameObject(object, LayerManager.getLayer(LayerManager.GameLayer.FLOWER));
+        // Flowers, fruits and impostors are removed together with their tree
+        for (Tree tree : chunk.getTrees()) {
+            if (removeWorldObject(tree, LayerManager.GameLayer.TREE)) {
+                event.trees++;
+            }
+            evictTree(tree, event);
+        }
+    }
+
+    /**
+     * Removes everything that belongs to an evicted tree, including its jump actions.
+     *
+     * @param tree  The evicted tree.
+     * @param event The eviction event counting the removed objects.
+     */
+    private void evictTree(Tree tree, ObjectsEvictedEvent event) {
+        if (tree.isDetailed()) {
+            hideTreeDetail(tree, event);
+        } else {
+            removeWorldObject(tree.getImpostor(), LayerManager.GameLayer.TREE_IMPOSTOR);
+        }
+        avatar.removeOnJump(loadedTrees.remove(tree));
+        dropPendingRespawns(tree);
+    }
+
+    /**
+     * Cancels the respawns of an evicted tree's eaten fruits. The tree is no longer moved
+     * with the world origin, so its fruits' positions go stale; the fruits are marked as
+     * grown back while their positions are still right, as the regenerated tree has them all.
+     *
+     * @param tree The evicted tree.
+     */
+    private void dropPendingRespawns(Tree tree) {
+        pendingRespawns.removeIf(respawn -> {
+            if (respawn.tree() != tree) {
+                return false;
+            }
+            Fruit fruit = respawn.fruit();
+            minimap.markFruit(fruit.getCenter().x(), fruit.getCenter().y(), false);
+            return true;
+        });
+    }
+
+    /**
+     * Adds a game object to a world layer and records it in the budget governor.
+     *
+     * @param object    The object to add.
+     * @param gameLayer The layer to add the object to.
+     */
+    private void addWorldObject(GameObject object, LayerManager.GameLayer gameLayer) {
+        gameObjects().addGameObject(object, LayerManager.getLayer(gameLayer));
+        budgetGovernor.onAdded(gameLayer);
+        if (parallelUpdates && object instanceof IsolatedUpdate isolated) {
+            parallelExecutor.add(isolated, object.getCenter().x());
         }
-        if (object instanceof Block) {
-            gameObjects().removeGameObject(object, LayerManager.getLayer(LayerManager.GameLayer.TERRAIN));
+    }
+
+    /**
+     * Removes a game object from a world layer and records it in the budget governor.
+     *
+     * @param object    The object to remove.
+     * @param gameLayer The layer to remove the object from.
+     * @return True if the object was in the layer and was removed.
+     */
+    private boolean removeWorldObject(GameObject object, LayerManager.GameLayer gameLayer) {
+        boolean removed = gameObjects().removeGameObject(object, LayerManager.getLayer(gameLayer));
+        if (removed) {
+            budgetGovernor.onRemoved(gameLayer);
+            if (object instanceof IsolatedUpdate isolated) {
+                parallelExecutor.remove(isolated);
+            }
         }
+        return removed;
     }
 
     /**
      * The main method to run the game.
+     *
+     * @param args Optionally "--record &lt;file&gt;" or "--replay &lt;file&gt;" to record or
+     *             replay the input of the session, "--crowd &lt;walkers&gt;" to add walkers,
+     *             "--parallel true" to update isolated objects in parallel, and
+     *             "--seed &lt;seed&gt;" to generate another world.
      */
     public static void main(String[] args) {
-        new PepseGameManager().run();
+        PepseGameManager gameManager = new PepseGameManager();
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for argument: " + args[i]);
+            }
+            switch (args[i]) {
+                case RECORD_ARG -> gameManager.recordInputTo(Path.of(args[i + 1]));
+                case REPLAY_ARG -> gameManager.replayInputFrom(Path.of(args[i + 1]));
+                case CROWD_ARG -> gameManager.setCrowdSize(Integer.parseInt(args[i + 1]));
+                case PARALLEL_ARG -> gameManager.setParallelUpdates(Boolean.parseBoolean(args[i + 1]));
+                case SEED_ARG -> gameManager.setSeed(Integer.parseInt(args[i + 1]));
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        gameManager.run();
+    }
+
+    /**
+     * An eaten fruit waiting to grow back.
+     *
+     * @param tree  The tree the fruit grows on.
+     * @param fruit The eaten fruit.
+     * @param time  The world clock time at which the fruit grows back.
+     */
+    private record FruitRespawn(Tree tree, Fruit fruit, double time) {
     }
-}
\ No newline at end of file
+}
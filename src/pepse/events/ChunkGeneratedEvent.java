@@ -0,0 +1,35 @@
+package pepse.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event emitted every time a range of the world is generated.
+ * The event duration covers terrain and flora creation for the range.
+ */
+@Name("pepse.ChunkGenerated")
+@Label("Chunk Generated")
+@Category({"Pepse", "World"})
+@Description("A range of terrain and flora was generated")
+public class ChunkGeneratedEvent extends Event {
+    @Label("Min X")
+    public int minX;
+
+    @Label("Max X")
+    public int maxX;
+
+    @Label("Blocks")
+    public int blocks;
+
+    @Label("Trees")
+    public int trees;
+
+    @Label("Flowers")
+    public int flowers;
+
+    @Label("Fruits")
+    public int fruits;
+}
@@ -0,0 +1,25 @@
+package pepse.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event emitted when the avatar eats a fruit.
+ */
+@Name("pepse.FruitEaten")
+@Label("Fruit Eaten")
+@Category({"Pepse", "Gameplay"})
+@Description("The avatar ate a fruit")
+public class FruitEatenEvent extends Event {
+    @Label("X")
+    public float x;
+
+    @Label("Y")
+    public float y;
+
+    @Label("Energy Gained")
+    public double energyGained;
+}
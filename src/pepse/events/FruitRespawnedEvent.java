@@ -0,0 +1,22 @@
+package pepse.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event emitted when an eaten fruit is put back into the world.
+ */
+@Name("pepse.FruitRespawned")
+@Label("Fruit Respawned")
+@Category({"Pepse", "Gameplay"})
+@Description("An eaten fruit was added back to the world")
+public class FruitRespawnedEvent extends Event {
+    @Label("X")
+    public float x;
+
+    @Label("Y")
+    public float y;
+}
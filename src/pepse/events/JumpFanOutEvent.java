@@ -0,0 +1,20 @@
+package pepse.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event emitted when the avatar jumps and notifies its jump listeners.
+ * The event duration covers running all listeners.
+ */
+@Name("pepse.JumpFanOut")
+@Label("Jump Fan-Out")
+@Category({"Pepse", "Gameplay"})
+@Description("The avatar jumped and ran its jump listeners")
+public class JumpFanOutEvent extends Event {
+    @Label("Listeners")
+    public int listeners;
+}
@@ -0,0 +1,35 @@
+package pepse.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event emitted by every eviction pass over the loaded world.
+ * The event duration covers the whole pass, including objects that were kept.
+ */
+@Name("pepse.ObjectsEvicted")
+@Label("Objects Evicted")
+@Category({"Pepse", "World"})
+@Description("Objects outside the world buffer were removed")
+public class ObjectsEvictedEvent extends Event {
+    @Label("Min X")
+    public int minX;
+
+    @Label("Max X")
+    public int maxX;
+
+    @Label("Blocks")
+    public int blocks;
+
+    @Label("Trees")
+    public int trees;
+
+    @Label("Flowers")
+    public int flowers;
+
+    @Label("Fruits")
+    public int fruits;
+}
@@ -0,0 +1,23 @@
+package pepse.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event emitted whenever the world origin moves and the loaded world is shifted back
+ * toward zero, so a recording shows how often long sessions rebase.
+ */
+@Name("pepse.OriginRebased")
+@Label("Origin Rebased")
+@Category({"Pepse", "World"})
+@Description("The world origin moved and the loaded world was shifted")
+public class OriginRebasedEvent extends Event {
+    @Label("Origin X")
+    public long originX;
+
+    @Label("Shift X")
+    public float shiftX;
+}
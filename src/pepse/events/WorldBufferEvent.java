@@ -0,0 +1,39 @@
+package pepse.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event emitted whenever the adaptive world buffer changes its margins,
+ * so a recording shows the chosen margins over time.
+ */
+@Name("pepse.WorldBuffer")
+@Label("World Buffer")
+@Category({"Pepse", "World"})
+@Description("The adaptive world buffer chose new margins")
+public class WorldBufferEvent extends Event {
+    @Label("Avatar Velocity X")
+    public float velocityX;
+
+    @Label("Left Chunks")
+    public int leftChunks;
+
+    @Label("Right Chunks")
+    public int rightChunks;
+
+    @Label("Chunk Cost")
+    @Timespan(Timespan.NANOSECONDS)
+    public long chunkCost;
+
+    @Label("Spare Frame Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long spareFrameTime;
+
+    @Label("Generation Budget")
+    @Timespan(Timespan.NANOSECONDS)
+    public long generationBudget;
+}
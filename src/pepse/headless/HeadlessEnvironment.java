@@ -0,0 +1,108 @@
+package pepse.headless;
+
+import danogl.GameManager;
+import danogl.gui.ImageReader;
+import danogl.gui.UserInputListener;
+import danogl.gui.WindowController;
+import danogl.util.Vector2;
+
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs a game manager without a window, so the world can be simulated
+ * from tools and harnesses. Keys are pressed and released by the caller,
+ * and every frame is stepped by calling the game manager's update directly.
+ */
+public class HeadlessEnvironment {
+    private static final String GET_WINDOW_DIMENSIONS = "getWindowDimensions";
+    private static final String IS_KEY_PRESSED = "isKeyPressed";
+    private static final String PRESSED_KEYS = "pressedKeys";
+    private static final Map<Class<?>, Object> PRIMITIVE_DEFAULTS = Map.of(
+            boolean.class, false, byte.class, (byte) 0, short.class, (short) 0,
+            char.class, '\0', int.class, 0, long.class, 0L, float.class, 0f, double.class, 0d);
+    private final Vector2 windowDimensions;
+    private final Set<Integer> pressedKeys = new HashSet<>();
+    private final WindowController windowController;
+    private final UserInputListener inputListener;
+
+    /**
+     * Constructor for the HeadlessEnvironment class.
+     *
+     * @param windowDimensions The dimensions of the simulated window.
+     */
+    public HeadlessEnvironment(Vector2 windowDimensions) {
+        this.windowDimensions = windowDimensions;
+        this.windowController = (WindowController) Proxy.newProxyInstance(
+                WindowController.class.getClassLoader(),
+                new Class<?>[]{WindowController.class},
+                (proxy, method, args) -> method.getName().equals(GET_WINDOW_DIMENSIONS) ?
+                        this.windowDimensions : defaultValue(method.getReturnType()));
+        this.inputListener = (UserInputListener) Proxy.newProxyInstance(
+                UserInputListener.class.getClassLoader(),
+                new Class<?>[]{UserInputListener.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case IS_KEY_PRESSED -> pressedKeys.contains((Integer) args[0]);
+                    case PRESSED_KEYS -> Set.copyOf(pressedKeys);
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+
+    /**
+     * Initializes a game manager against the headless window and input.
+     *
+     * @param gameManager The game manager to initialize.
+     */
+    public void initialize(GameManager gameManager) {
+        gameManager.initializeGame(new ImageReader(windowController), null,
+                inputListener, windowController);
+    }
+
+    /**
+     * Presses a key until it is released.
+     *
+     * @param keyCode The key code.
+     */
+    public void press(int keyCode) {
+        pressedKeys.add(keyCode);
+    }
+
+    /**
+     * Releases a pressed key.
+     *
+     * @param keyCode The key code.
+     */
+    public void release(int keyCode) {
+        pressedKeys.remove(keyCode);
+    }
+
+    /**
+     * Gets the input listener that reports the keys pressed through this environment.
+     *
+     * @return The headless input listener.
+     */
+    public UserInputListener getInputListener() {
+        return inputListener;
+    }
+
+    /**
+     * Gets the window controller of the simulated window.
+     *
+     * @return The headless window controller.
+     */
+    public WindowController getWindowController() {
+        return windowController;
+    }
+
+    /**
+     * Gets the value returned for calls the headless window and input do not support.
+     *
+     * @param type The return type of the call.
+     * @return The default value of the type.
+     */
+    private static Object defaultValue(Class<?> type) {
+        return PRIMITIVE_DEFAULTS.get(type);
+    }
+}
@@ -0,0 +1,60 @@
+package pepse.replay;
+
+import danogl.gui.UserInputListener;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Records the per-frame key state and delta time of a session into a trace file,
+ * so the session can be replayed by {@link InputReplay}.
+ */
+public class InputRecorder implements Closeable {
+    private final DataOutputStream output;
+    private final UserInputListener inputListener;
+
+    /**
+     * Constructor for the InputRecorder class.
+     *
+     * @param tracePath     The file to write the trace to.
+     * @param inputListener The listener to read the key state from.
+     */
+    public InputRecorder(Path tracePath, UserInputListener inputListener) {
+        this.inputListener = inputListener;
+        try {
+            output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tracePath)));
+            output.writeInt(InputTrace.MAGIC);
+            output.writeByte(InputTrace.VERSION);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Records the current key state together with the frame's delta time.
+     *
+     * @param deltaTime The delta time of the frame.
+     */
+    public void recordFrame(float deltaTime) {
+        try {
+            output.writeByte(InputTrace.keyMask(inputListener));
+            output.writeFloat(deltaTime);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            output.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
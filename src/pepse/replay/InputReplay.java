@@ -0,0 +1,143 @@
+package pepse.replay;
+
+import danogl.gui.UserInputListener;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Plays back a trace written by {@link InputRecorder}.
+ * The whole trace is loaded up front, so replaying does no IO during the game.
+ */
+public class InputReplay {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final String IS_KEY_PRESSED = "isKeyPressed";
+    private byte[] keyMasks = new byte[INITIAL_CAPACITY];
+    private float[] deltaTimes = new float[INITIAL_CAPACITY];
+    private int frameCount = 0;
+    private int currentFrame = -1;
+
+    /**
+     * Constructor for the InputReplay class.
+     *
+     * @param tracePath The trace file to replay.
+     */
+    public InputReplay(Path tracePath) {
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(tracePath)))) {
+            if (input.readInt() != InputTrace.MAGIC || input.readByte() != InputTrace.VERSION) {
+                throw new IllegalArgumentException("Not an input trace: " + tracePath);
+            }
+            readFrames(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Moves to the next recorded frame.
+     *
+     * @return The recorded delta time of the frame, or 0 if the trace is finished.
+     */
+    public float nextFrame() {
+        if (currentFrame < frameCount) {
+            currentFrame++;
+        }
+        return isFinished() ? 0 : deltaTimes[currentFrame];
+    }
+
+    /**
+     * Checks whether all recorded frames were played.
+     *
+     * @return True if the trace is finished.
+     */
+    public boolean isFinished() {
+        return currentFrame >= frameCount;
+    }
+
+    /**
+     * Checks whether a key was pressed in the current frame.
+     * Keys are released once the trace is finished.
+     *
+     * @param keyCode The key code.
+     * @return True if the key was pressed.
+     */
+    public boolean isKeyPressed(int keyCode) {
+        if (currentFrame < 0 || isFinished()) {
+            return false;
+        }
+        return (keyMasks[currentFrame] & InputTrace.keyBit(keyCode)) != 0;
+    }
+
+    /**
+     * Creates an input listener that answers key queries from the trace and
+     * forwards everything else (e.g. the mouse) to the live listener.
+     *
+     * @param liveListener The live input listener.
+     * @return The replaying input listener.
+     */
+    public UserInputListener wrap(UserInputListener liveListener) {
+        return (UserInputListener) Proxy.newProxyInstance(
+                UserInputListener.class.getClassLoader(),
+                new Class<?>[]{UserInputListener.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals(IS_KEY_PRESSED)) {
+                        return isKeyPressed((Integer) args[0]);
+                    }
+                    return invoke(method, liveListener, args);
+                });
+    }
+
+    /**
+     * Invokes a listener method on the live listener, unwrapping its exceptions.
+     *
+     * @param method       The method to invoke.
+     * @param liveListener The live input listener.
+     * @param args         The arguments of the call.
+     * @return The result of the call.
+     * @throws Throwable The exception thrown by the live listener.
+     */
+    private static Object invoke(Method method, UserInputListener liveListener, Object[] args)
+            throws Throwable {
+        try {
+            return method.invoke(liveListener, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Reads all frame records until the end of the trace.
+     *
+     * @param input The trace input, positioned after the header.
+     * @throws IOException If the trace cannot be read.
+     */
+    private void readFrames(DataInputStream input) throws IOException {
+        while (true) {
+            byte keyMask;
+            float deltaTime;
+            try {
+                keyMask = input.readByte();
+                deltaTime = input.readFloat();
+            } catch (EOFException e) {
+                return;
+            }
+            if (frameCount == keyMasks.length) {
+                keyMasks = Arrays.copyOf(keyMasks, frameCount * 2);
+                deltaTimes = Arrays.copyOf(deltaTimes, frameCount * 2);
+            }
+            keyMasks[frameCount] = keyMask;
+            deltaTimes[frameCount] = deltaTime;
+            frameCount++;
+        }
+    }
+}
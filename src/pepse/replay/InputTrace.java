@@ -0,0 +1,50 @@
+package pepse.replay;
+
+import danogl.gui.UserInputListener;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * The binary format shared by {@link InputRecorder} and {@link InputReplay}.
+ * A trace is a header followed by one record per frame: a byte with one bit per
+ * recorded key, and the frame's delta time as a float.
+ */
+final class InputTrace {
+    static final int MAGIC = 0x50455049; // "PEPI"
+    static final byte VERSION = 1;
+    static final int[] RECORDED_KEYS = {KeyEvent.VK_LEFT, KeyEvent.VK_RIGHT, KeyEvent.VK_SPACE};
+
+    private InputTrace() {
+    }
+
+    /**
+     * Packs the state of the recorded keys into a bit mask.
+     *
+     * @param inputListener The listener to read the key state from.
+     * @return A mask with one bit per recorded key.
+     */
+    static byte keyMask(UserInputListener inputListener) {
+        byte mask = 0;
+        for (int i = 0; i < RECORDED_KEYS.length; i++) {
+            if (inputListener.isKeyPressed(RECORDED_KEYS[i])) {
+                mask |= (byte) (1 << i);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Finds the bit of a key in a key mask.
+     *
+     * @param keyCode The key code.
+     * @return The bit of the key, or 0 if the key is not recorded.
+     */
+    static int keyBit(int keyCode) {
+        for (int i = 0; i < RECORDED_KEYS.length; i++) {
+            if (RECORDED_KEYS[i] == keyCode) {
+                return 1 << i;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,256 @@
+package pepse.tools;
+
+import danogl.util.Vector2;
+import pepse.world.Chunk;
+import pepse.world.Terrain;
+import pepse.world.WorldFingerprint;
+import pepse.world.trees.Flora;
+import pepse.world.trees.TreeArchetype;
+import pepse.world.trees.TreeArchetypeCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks that an optimized generation path generates exactly the same world as the
+ * reference path, by comparing the fingerprints of every chunk over many seeds and
+ * long ranges. The reference path generates every segment with a fresh terrain and
+ * flora, with cold caches, from left to right. The candidate path, chosen on the
+ * command line, uses the same generator as the reference, so any difference comes
+ * from streaming, caching or ordering rather than from a different design.
+ * The work is split into segments pulled by one worker per core, as in {@link WorldStatsScanner}.
+ * The sum of the reference fingerprints is printed too, so a sweep can be compared
+ * with the same sweep run on an older version of the generation code.
+ * <p>
+ * Usage: FingerprintCompare [--candidate cached|archetypes] [--archetypes count]
+ * [--seeds count] [--first-seed seed] [--min-x px] [--max-x px] [--threads count]
+ * [--max-reports count]
+ * <br>
+ * Exits with a failure status if any chunk differs.
+ */
+public class FingerprintCompare {
+    private static final Vector2 WINDOW_DIMENSIONS = Vector2.of(1280, 720);
+    private static final int SEGMENT_CHUNKS = 1024; // Chunks compared per unit of work
+    private static final int EXIT_FAILURE = 1;
+    private static final long FLORA_MULTIPLIER = 31; // Mixes the flora fingerprint into the chunk's
+    private static final int DEFAULT_SEEDS = 8;
+    private static final int DEFAULT_FIRST_SEED = 0;
+    private static final int DEFAULT_MIN_X = -500_000;
+    private static final int DEFAULT_MAX_X = 500_000;
+    private static final int DEFAULT_ARCHETYPES = 32;
+    private static final int DEFAULT_MAX_REPORTS = 20;
+
+    /**
+     * The generation paths that can be compared with the reference path.
+     */
+    private enum Candidate {
+        /**
+         * One terrain and flora per seed, reused across segments so their caches stay warm,
+         * walked from right to left.
+         */
+        CACHED,
+        /**
+         * As {@link #CACHED}, with the trees instantiated from the seed's shared archetypes.
+         * The reference instantiates them from archetypes drawn afresh for every segment.
+         */
+        ARCHETYPES
+    }
+
+    private Candidate candidate = Candidate.CACHED;
+    private int archetypes = DEFAULT_ARCHETYPES;
+    private int seeds = DEFAULT_SEEDS;
+    private int firstSeed = DEFAULT_FIRST_SEED;
+    private int minX = DEFAULT_MIN_X;
+    private int maxX = DEFAULT_MAX_X;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int maxReports = DEFAULT_MAX_REPORTS;
+
+    /**
+     * Runs the comparison and reports the result.
+     *
+     * @param args The comparison options.
+     * @throws Exception If a worker failed.
+     */
+    public static void main(String[] args) throws Exception {
+        FingerprintCompare compare = new FingerprintCompare();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--candidate" -> compare.candidate = Candidate.valueOf(args[i + 1].toUpperCase());
+                case "--archetypes" -> compare.archetypes = Integer.parseInt(args[i + 1]);
+                case "--seeds" -> compare.seeds = Integer.parseInt(args[i + 1]);
+                case "--first-seed" -> compare.firstSeed = Integer.parseInt(args[i + 1]);
+                case "--min-x" -> compare.minX = Integer.parseInt(args[i + 1]);
+                case "--max-x" -> compare.maxX = Integer.parseInt(args[i + 1]);
+                case "--threads" -> compare.threads = Integer.parseInt(args[i + 1]);
+                case "--max-reports" -> compare.maxReports = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        long start = System.nanoTime();
+        Result result = compare.compare();
+        if (!compare.report(result, (System.nanoTime() - start) / 1e9)) {
+            System.exit(EXIT_FAILURE);
+        }
+    }
+
+    /**
+     * Compares every seed over the range, on all the worker threads.
+     *
+     * @return The merged result.
+     * @throws Exception If a worker failed.
+     */
+    private Result compare() throws Exception {
+        int firstChunk = Chunk.indexAt(minX);
+        int lastChunk = Chunk.indexAt(maxX - 1);
+        long segmentsPerSeed = ((long) lastChunk - firstChunk) / SEGMENT_CHUNKS + 1;
+        long segments = segmentsPerSeed * seeds;
+        AtomicLong nextSegment = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Result>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> {
+                    Result result = new Result();
+                    Terrain candidateTerrain = null;
+                    Flora candidateFlora = null;
+                    for (long segment = nextSegment.getAndIncrement(); segment < segments;
+                         segment = nextSegment.getAndIncrement()) {
+                        int seed = firstSeed + (int) (segment / segmentsPerSeed);
+                        if (candidateTerrain == null || candidateTerrain.getSeed() != seed) {
+                            candidateTerrain = new Terrain(WINDOW_DIMENSIONS, seed);
+                            candidateFlora = new Flora(candidateTerrain::groundHeightAt, seed,
+                                    candidateArchetypeCount(), candidateTerrain.getBiomeField(),
+                                    candidateTerrain.getOrigin());
+                        }
+                        int segmentFirstChunk = firstChunk + (int) (segment % segmentsPerSeed) * SEGMENT_CHUNKS;
+                        int segmentLastChunk = (int) Math.min(lastChunk, (long) segmentFirstChunk + SEGMENT_CHUNKS - 1);
+                        compareSegment(seed, candidateTerrain, candidateFlora,
+                                segmentFirstChunk, segmentLastChunk, result);
+                    }
+                    return result;
+                }));
+            }
+            Result merged = new Result();
+            for (Future<Result> worker : workers) {
+                merged.add(worker.get(), maxReports);
+            }
+            return merged;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Compares the chunks of a segment of one seed. The reference fingerprints are taken
+     * first, from a fresh terrain and flora walked from left to right, then the candidate's,
+     * walked from right to left. In archetype mode the reference flora draws its own
+     * archetypes rather than taking the shared ones.
+     *
+     * @param seed             The seed.
+     * @param candidateTerrain The candidate's terrain of the seed.
+     * @param candidateFlora   The candidate's flora of the seed.
+     * @param firstChunk       The first chunk to compare.
+     * @param lastChunk        The last chunk to compare, inclusive.
+     * @param result           The result to add to.
+     */
+    private void compareSegment(int seed, Terrain candidateTerrain, Flora candidateFlora,
+                                int firstChunk, int lastChunk, Result result) {
+        Terrain referenceTerrain = new Terrain(WINDOW_DIMENSIONS, seed);
+        TreeArchetype[] referenceArchetypes = candidateArchetypeCount() > 0
+                ? TreeArchetypeCache.drawArchetypes(seed, candidateArchetypeCount()) : null;
+        Flora referenceFlora = new Flora(referenceTerrain::groundHeightAt, seed, referenceArchetypes,
+                referenceTerrain.getBiomeField(), referenceTerrain.getOrigin());
+        int count = lastChunk - firstChunk + 1;
+        long[] terrainFingerprints = new long[count];
+        long[] floraFingerprints = new long[count];
+        for (int i = 0; i < count; i++) {
+            terrainFingerprints[i] = WorldFingerprint.ofTerrain(referenceTerrain, firstChunk + i);
+            floraFingerprints[i] = WorldFingerprint.ofFlora(referenceFlora, firstChunk + i);
+            result.sum += terrainFingerprints[i] * FLORA_MULTIPLIER + floraFingerprints[i];
+        }
+
+        for (int i = count - 1; i >= 0; i--) {
+            int chunk = firstChunk + i;
+            if (WorldFingerprint.ofTerrain(candidateTerrain, chunk) != terrainFingerprints[i]) {
+                result.terrainMismatches++;
+                result.report(String.format("seed %d chunk %d: terrain differs", seed, chunk), maxReports);
+            }
+            if (WorldFingerprint.ofFlora(candidateFlora, chunk) != floraFingerprints[i]) {
+                result.floraMismatches++;
+                result.report(String.format("seed %d chunk %d: flora differs", seed, chunk), maxReports);
+            }
+        }
+        result.chunks += count;
+    }
+
+    /**
+     * Gets the number of tree archetypes the candidate path instantiates trees from.
+     *
+     * @return The number of archetypes, or 0 if every tree draws its own layout.
+     */
+    private int candidateArchetypeCount() {
+        return candidate == Candidate.ARCHETYPES ? archetypes : 0;
+    }
+
+    /**
+     * Prints the result of the comparison.
+     *
+     * @param result  The merged result.
+     * @param seconds The duration of the comparison.
+     * @return True if every chunk matched.
+     */
+    private boolean report(Result result, double seconds) {
+        result.reports.forEach(System.out::println);
+        System.out.printf("# seeds %d..%d, x in [%d, %d), candidate %s%n",
+                firstSeed, firstSeed + seeds - 1, minX, maxX, candidate.name().toLowerCase());
+        System.out.printf("chunks %d in %.1f s%n", result.chunks, seconds);
+        System.out.printf("referenceFingerprint %016x%n", result.sum);
+        System.out.printf("terrainMismatches %d%n", result.terrainMismatches);
+        System.out.printf("floraMismatches %d%n", result.floraMismatches);
+        boolean passed = result.terrainMismatches == 0 && result.floraMismatches == 0;
+        System.out.println(passed ? "PASSED" : "FAILED");
+        return passed;
+    }
+
+    /**
+     * The result of comparing chunks, owned by a single worker until merged.
+     */
+    private static class Result {
+        private final List<String> reports = new ArrayList<>();
+        private long chunks = 0;
+        private long terrainMismatches = 0;
+        private long floraMismatches = 0;
+        private long sum = 0; // Of the reference fingerprints, so it does not depend on the order
+
+        /**
+         * Keeps the description of a mismatch, up to a limit.
+         *
+         * @param mismatch   The description.
+         * @param maxReports The number of descriptions kept.
+         */
+        private void report(String mismatch, int maxReports) {
+            if (reports.size() < maxReports) {
+                reports.add(mismatch);
+            }
+        }
+
+        /**
+         * Adds the result of another worker.
+         *
+         * @param other      The other result.
+         * @param maxReports The number of mismatch descriptions kept.
+         */
+        private void add(Result other, int maxReports) {
+            other.reports.forEach(mismatch -> report(mismatch, maxReports));
+            chunks += other.chunks;
+            terrainMismatches += other.terrainMismatches;
+            floraMismatches += other.floraMismatches;
+            sum += other.sum;
+        }
+    }
+}
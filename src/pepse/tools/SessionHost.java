@@ -0,0 +1,210 @@
+package pepse.tools;
+
+import danogl.util.Vector2;
+import pepse.PepseGameManager;
+import pepse.headless.HeadlessEnvironment;
+
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Hosts many independent worlds in one process, as a simulation server would.
+ * Every session is a headless game with its own seed, stepped frame by frame with
+ * the avatar running right and jumping. All the sessions step the same frame
+ * concurrently on a thread pool before any of them steps the next, so a session
+ * may move between threads but never runs on two at once.
+ * The sessions share only immutable per-seed data, such as the noise permutation
+ * table and the tree archetypes, so they never affect each other's worlds.
+ * The tick time of every session is reported at the end.
+ * <p>
+ * Usage: SessionHost [--sessions count] [--threads count] [--frames count] [--first-seed seed]
+ */
+public class SessionHost {
+    private static final Vector2 WINDOW_DIMENSIONS = Vector2.of(1280, 720);
+    private static final float FRAME_TIME = 1f / 60;
+    private static final int JUMP_INTERVAL = 90; // Frames between jumps
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final double P50 = 0.5;
+    private static final double P99 = 0.99;
+    private static final int DEFAULT_SESSIONS = 8;
+    private static final int DEFAULT_FRAMES = 3600;
+    private static final int DEFAULT_FIRST_SEED = 0;
+
+    private int sessionCount = DEFAULT_SESSIONS;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int frames = DEFAULT_FRAMES;
+    private int firstSeed = DEFAULT_FIRST_SEED;
+
+    /**
+     * Runs the sessions and reports their tick times.
+     *
+     * @param args The host options.
+     * @throws Exception If a session failed.
+     */
+    public static void main(String[] args) throws Exception {
+        SessionHost host = new SessionHost();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--sessions" -> host.sessionCount = Integer.parseInt(args[i + 1]);
+                case "--threads" -> host.threads = Integer.parseInt(args[i + 1]);
+                case "--frames" -> host.frames = Integer.parseInt(args[i + 1]);
+                case "--first-seed" -> host.firstSeed = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        long start = System.nanoTime();
+        List<Session> sessions = host.run();
+        host.report(sessions, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Creates the sessions and steps them all, one frame at a time, on the thread pool.
+     *
+     * @return The finished sessions.
+     * @throws Exception If a session failed.
+     */
+    private List<Session> run() throws Exception {
+        List<Session> sessions = new ArrayList<>(sessionCount);
+        for (int i = 0; i < sessionCount; i++) {
+            sessions.add(new Session(firstSeed + i, frames));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            runOnAll(executor, sessions, Session::initialize);
+            for (int frame = 0; frame < frames; frame++) {
+                runOnAll(executor, sessions, Session::tick);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return sessions;
+    }
+
+    /**
+     * Runs a step of every session on the thread pool, and waits for all of them.
+     *
+     * @param executor The thread pool.
+     * @param sessions The sessions.
+     * @param step     The step to run on a session.
+     * @throws Exception If a session failed.
+     */
+    private static void runOnAll(ExecutorService executor, List<Session> sessions,
+                                 Consumer<Session> step) throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>(sessions.size());
+        for (Session session : sessions) {
+            tasks.add(() -> {
+                step.accept(session);
+                return null;
+            });
+        }
+        for (Future<Void> result : executor.invokeAll(tasks)) {
+            result.get();
+        }
+    }
+
+    /**
+     * Prints the tick times of every session, and the throughput of the host.
+     *
+     * @param sessions The finished sessions.
+     * @param seconds  The duration of the run.
+     */
+    private void report(List<Session> sessions, double seconds) {
+        System.out.printf("# %d sessions, %d frames, %d threads%n", sessionCount, frames, threads);
+        long totalTicks = 0;
+        for (Session session : sessions) {
+            long[] sorted = session.tickNanos.clone();
+            Arrays.sort(sorted);
+            double mean = Arrays.stream(sorted).average().orElse(0);
+            System.out.printf("seed %d: mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms, avatar x %.0f%n",
+                    session.seed, mean / NANOS_PER_MILLI,
+                    percentile(sorted, P50) / NANOS_PER_MILLI, percentile(sorted, P99) / NANOS_PER_MILLI,
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / NANOS_PER_MILLI, session.avatarX());
+            totalTicks += sorted.length;
+        }
+        System.out.printf("%d ticks in %.1f s (%.0f ticks per second)%n",
+                totalTicks, seconds, totalTicks / seconds);
+    }
+
+    /**
+     * Gets a percentile of sorted values.
+     *
+     * @param sorted   The values, in ascending order.
+     * @param fraction The percentile, in [0, 1].
+     * @return The value at the percentile, or 0 if there are no values.
+     */
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(fraction * sorted.length))];
+    }
+
+    /**
+     * A single hosted world, with its own game, headless environment and tick times.
+     */
+    private static class Session {
+        private final int seed;
+        private final PepseGameManager game = new PepseGameManager();
+        private final HeadlessEnvironment environment = new HeadlessEnvironment(WINDOW_DIMENSIONS);
+        private final long[] tickNanos;
+        private int frame = 0;
+        private double lastX;
+
+        /**
+         * Constructor for the Session class.
+         *
+         * @param seed   The seed of the session's world.
+         * @param frames The number of frames the session is stepped.
+         */
+        private Session(int seed, int frames) {
+            this.seed = seed;
+            this.tickNanos = new long[frames];
+        }
+
+        /**
+         * Generates the session's world and starts the avatar running.
+         */
+        private void initialize() {
+            game.setHeadless(true);
+            game.setSeed(seed);
+            environment.initialize(game);
+            environment.press(KeyEvent.VK_RIGHT);
+            lastX = avatarX();
+        }
+
+        /**
+         * Steps the session by one frame, timing it.
+         */
+        private void tick() {
+            long start = System.nanoTime();
+            game.update(FRAME_TIME);
+            tickNanos[frame] = System.nanoTime() - start;
+
+            double x = avatarX();
+            if (x == lastX || frame % JUMP_INTERVAL == 0) {
+                environment.press(KeyEvent.VK_SPACE);
+            } else {
+                environment.release(KeyEvent.VK_SPACE);
+            }
+            lastX = x;
+            frame++;
+        }
+
+        /**
+         * Gets the absolute x-coordinate of the avatar's center, unaffected by the world origin moving.
+         *
+         * @return The avatar's absolute x-coordinate.
+         */
+        private double avatarX() {
+            return game.getWorldOrigin().toAbsoluteX(game.getAvatar().getCenter().x());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package pepse.tools;
+
+import danogl.util.Vector2;
+import pepse.PepseGameManager;
+import pepse.headless.HeadlessEnvironment;
+
+import java.awt.event.KeyEvent;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A long-run soak test of the world pipeline. Runs the game without a display,
+ * making the avatar run and jump back and forth across millions of pixels, and
+ * samples the live object counts and the post-GC heap at intervals.
+ * Fails if any count or the heap grows faster than the allowed slope, which
+ * catches objects, jump actions or respawn tasks that accumulate over long sessions.
+ * <p>
+ * Usage: SoakHarness [--distance px] [--leg px] [--sample-every frames]
+ * [--max-object-slope objects] [--max-heap-slope bytes]
+ * <br>
+ * Slopes are measured per 100,000 pixels travelled.
+ */
+public class SoakHarness {
+    private static final Vector2 WINDOW_DIMENSIONS = Vector2.of(1280, 720);
+    private static final float FRAME_TIME = 1f / 60;
+    private static final int JUMP_INTERVAL = 90; // Frames between jumps
+    private static final float SLOPE_UNIT = 100_000f; // Pixels travelled per slope unit
+    private static final float WARM_UP_RATIO = 0.1f; // Share of samples ignored while the world fills
+    private static final int STALL_LIMIT = 600; // Frames without movement before giving up
+    private static final int GC_PASSES = 2;
+    private static final int EXIT_FAILURE = 1;
+    private static final double DEFAULT_DISTANCE = 4_000_000;
+    private static final double DEFAULT_LEG = 500_000;
+    private static final int DEFAULT_SAMPLE_INTERVAL = 5000;
+    private static final double DEFAULT_MAX_OBJECT_SLOPE = 5;
+    private static final double DEFAULT_MAX_HEAP_SLOPE = 1024 * 1024;
+    private static final String HEAP_KEY = "heapBytes";
+
+    private final PepseGameManager game = new PepseGameManager();
+    private final HeadlessEnvironment environment = new HeadlessEnvironment(WINDOW_DIMENSIONS);
+    private final List<Sample> samples = new ArrayList<>();
+    private double distance = DEFAULT_DISTANCE;
+    private double leg = DEFAULT_LEG;
+    private int sampleInterval = DEFAULT_SAMPLE_INTERVAL;
+    private double maxObjectSlope = DEFAULT_MAX_OBJECT_SLOPE;
+    private double maxHeapSlope = DEFAULT_MAX_HEAP_SLOPE;
+
+    /**
+     * A single measurement taken during the soak.
+     *
+     * @param travelled The distance the avatar travelled so far, in pixels.
+     * @param counts    The live object counts, by type.
+     * @param heapBytes The heap in use after a full GC.
+     */
+    private record Sample(double travelled, Map<String, Integer> counts, long heapBytes) {
+    }
+
+    /**
+     * Runs the soak and reports the result.
+     *
+     * @param args The harness options.
+     */
+    public static void main(String[] args) {
+        SoakHarness harness = new SoakHarness();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--distance" -> harness.distance = Double.parseDouble(args[i + 1]);
+                case "--leg" -> harness.leg = Double.parseDouble(args[i + 1]);
+                case "--sample-every" -> harness.sampleInterval = Integer.parseInt(args[i + 1]);
+                case "--max-object-slope" -> harness.maxObjectSlope = Double.parseDouble(args[i + 1]);
+                case "--max-heap-slope" -> harness.maxHeapSlope = Double.parseDouble(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        harness.run();
+        if (!harness.report()) {
+            System.exit(EXIT_FAILURE);
+        }
+    }
+
+    /**
+     * Drives the avatar until it travelled the requested distance, sampling as it goes.
+     */
+    private void run() {
+        game.setHeadless(true);
+        environment.initialize(game);
+        double legStartX = avatarX();
+        double lastX = legStartX;
+        int direction = KeyEvent.VK_RIGHT;
+        double travelled = 0;
+        int stalledFrames = 0;
+        environment.press(direction);
+
+        for (long frame = 0; travelled < distance; frame++) {
+            game.update(FRAME_TIME);
+            double x = avatarX();
+            boolean stuck = x == lastX;
+            travelled += Math.abs(x - lastX);
+            lastX = x;
+            stalledFrames = stuck ? stalledFrames + 1 : 0;
+            if (stalledFrames > STALL_LIMIT) {
+                throw new IllegalStateException("Avatar stopped moving after " + travelled + " px");
+            }
+
+            if (stuck || frame % JUMP_INTERVAL == 0) {
+                environment.press(KeyEvent.VK_SPACE);
+            } else {
+                environment.release(KeyEvent.VK_SPACE);
+            }
+            if (Math.abs(x - legStartX) >= leg) {
+                environment.release(direction);
+                direction = direction == KeyEvent.VK_RIGHT ? KeyEvent.VK_LEFT : KeyEvent.VK_RIGHT;
+                environment.press(direction);
+                legStartX = x;
+            }
+            if (frame % sampleInterval == 0) {
+                sample(travelled);
+            }
+        }
+        sample(travelled);
+    }
+
+    /**
+     * Gets the absolute x-coordinate of the avatar's center, unaffected by the world origin moving.
+     *
+     * @return The avatar's absolute x-coordinate.
+     */
+    private double avatarX() {
+        return game.getWorldOrigin().toAbsoluteX(game.getAvatar().getCenter().x());
+    }
+
+    /**
+     * Takes a measurement of the live objects and the post-GC heap.
+     *
+     * @param travelled The distance the avatar travelled so far.
+     */
+    private void sample(double travelled) {
+        Map<String, Integer> counts = game.getLiveObjectCounts();
+        for (int i = 0; i < GC_PASSES; i++) {
+            System.gc();
+        }
+        long heapBytes = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        samples.add(new Sample(travelled, counts, heapBytes));
+        System.out.printf("%.0f px %s %s=%d%n", travelled, counts, HEAP_KEY, heapBytes);
+    }
+
+    /**
+     * Prints the growth slope of every sampled value and checks it against the limits.
+     *
+     * @return True if nothing grew faster than allowed.
+     */
+    private boolean report() {
+        List<Sample> steadySamples = samples.subList((int) (samples.size() * WARM_UP_RATIO), samples.size());
+        TreeSet<String> keys = new TreeSet<>();
+        steadySamples.forEach(sample -> keys.addAll(sample.counts().keySet()));
+        boolean passed = true;
+
+        for (String key : keys) {
+            double slope = slope(steadySamples, sample -> sample.counts().getOrDefault(key, 0));
+            passed &= check(key, slope, maxObjectSlope);
+        }
+        double heapSlope = slope(steadySamples, sample -> (double) sample.heapBytes());
+        passed &= check(HEAP_KEY, heapSlope, maxHeapSlope);
+        System.out.println(passed ? "PASSED" : "FAILED");
+        return passed;
+    }
+
+    /**
+     * Prints a slope and checks it against its limit.
+     *
+     * @param key      The name of the sampled value.
+     * @param slope    The growth of the value per slope unit.
+     * @param maxSlope The allowed growth per slope unit.
+     * @return True if the slope is within the limit.
+     */
+    private static boolean check(String key, double slope, double maxSlope) {
+        boolean withinLimit = slope <= maxSlope;
+        System.out.printf("%s: %.3f per %.0f px (max %.3f)%s%n", key, slope, SLOPE_UNIT, maxSlope,
+                withinLimit ? "" : " <- grows too fast");
+        return withinLimit;
+    }
+
+    /**
+     * Computes the least-squares slope of a sampled value against the distance travelled.
+     *
+     * @param samples The samples.
+     * @param value   Extracts the value from a sample.
+     * @return The slope, per slope unit of distance.
+     */
+    private static double slope(List<Sample> samples, ToDoubleFunction<Sample> value) {
+        int n = samples.size();
+        if (n < 2) {
+            return 0;
+        }
+        double sumX = 0, sumY = 0, sumXY = 0, sumXX = 0;
+        for (Sample sample : samples) {
+            double x = sample.travelled() / SLOPE_UNIT;
+            double y = value.applyAsDouble(sample);
+            sumX += x;
+            sumY += y;
+            sumXY += x * y;
+            sumXX += x * x;
+        }
+        double denominator = n * sumXX - sumX * sumX;
+        return denominator == 0 ? 0 : (n * sumXY - sumX * sumY) / denominator;
+    }
+}
@@ -0,0 +1,269 @@
+package pepse.tools;
+
+import danogl.util.Vector2;
+import pepse.world.Avatar;
+import pepse.world.Block;
+import pepse.world.Chunk;
+import pepse.world.Terrain;
+import pepse.world.trees.Flora;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gathers statistics of the generated world over many seeds and long ranges, to tune
+ * the terrain and flora parameters. Columns are streamed through the generation code
+ * without creating any game object, the seed and range work is split into segments
+ * pulled by one worker per core, and every worker adds into its own fixed-size
+ * histograms, so memory does not grow with the range. The merged histograms are
+ * written to a text file.
+ * <p>
+ * Usage: WorldStatsScanner [--seeds count] [--first-seed seed] [--min-x px] [--max-x px]
+ * [--threads count] [--out file]
+ */
+public class WorldStatsScanner {
+    private static final Vector2 WINDOW_DIMENSIONS = Vector2.of(1280, 720);
+    private static final int SEGMENT_CHUNKS = 4096; // Chunks scanned per unit of work
+    private static final int CHUNK_COLUMNS = Chunk.WIDTH / Block.SIZE;
+    private static final int HEIGHT_RANGE = 64; // Blocks above and below the mean ground, edge bins take the rest
+    private static final int STEP_RANGE = 32; // Blocks up and down between neighbouring columns
+    private static final int MAX_TREES_PER_CHUNK = Chunk.WIDTH / (Block.SIZE * 2);
+    private static final int DEFAULT_SEEDS = 16;
+    private static final int DEFAULT_FIRST_SEED = 0;
+    private static final int DEFAULT_MIN_X = -1_000_000;
+    private static final int DEFAULT_MAX_X = 1_000_000;
+    private static final String DEFAULT_OUT = "world-stats.txt";
+
+    private int seeds = DEFAULT_SEEDS;
+    private int firstSeed = DEFAULT_FIRST_SEED;
+    private int minX = DEFAULT_MIN_X;
+    private int maxX = DEFAULT_MAX_X;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private Path out = Path.of(DEFAULT_OUT);
+
+    /**
+     * Runs the scan and writes the statistics.
+     *
+     * @param args The scanner options.
+     * @throws Exception If a worker failed or the statistics could not be written.
+     */
+    public static void main(String[] args) throws Exception {
+        WorldStatsScanner scanner = new WorldStatsScanner();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--seeds" -> scanner.seeds = Integer.parseInt(args[i + 1]);
+                case "--first-seed" -> scanner.firstSeed = Integer.parseInt(args[i + 1]);
+                case "--min-x" -> scanner.minX = Integer.parseInt(args[i + 1]);
+                case "--max-x" -> scanner.maxX = Integer.parseInt(args[i + 1]);
+                case "--threads" -> scanner.threads = Integer.parseInt(args[i + 1]);
+                case "--out" -> scanner.out = Path.of(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        long start = System.nanoTime();
+        Stats stats = scanner.scan();
+        scanner.write(stats);
+        System.out.printf("Scanned %d columns in %.1f s, written to %s%n",
+                stats.columns, (System.nanoTime() - start) / 1e9, scanner.out);
+    }
+
+    /**
+     * Scans every seed over the range, on all the worker threads.
+     *
+     * @return The merged statistics.
+     * @throws Exception If a worker failed.
+     */
+    private Stats scan() throws Exception {
+        int firstChunk = Chunk.indexAt(minX);
+        int lastChunk = Chunk.indexAt(maxX - 1);
+        long segmentsPerSeed = ((long) lastChunk - firstChunk) / SEGMENT_CHUNKS + 1;
+        long segments = segmentsPerSeed * seeds;
+        AtomicLong nextSegment = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Stats>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> {
+                    Stats stats = new Stats();
+                    Terrain terrain = null;
+                    Flora flora = null;
+                    for (long segment = nextSegment.getAndIncrement(); segment < segments;
+                         segment = nextSegment.getAndIncrement()) {
+                        int seed = firstSeed + (int) (segment / segmentsPerSeed);
+                        if (terrain == null || terrain.getSeed() != seed) {
+                            terrain = new Terrain(WINDOW_DIMENSIONS, seed);
+                            flora = new Flora(terrain::groundHeightAt, seed, 0, terrain.getBiomeField(),
+                                    terrain.getOrigin());
+                        }
+                        int segmentFirstChunk = firstChunk + (int) (segment % segmentsPerSeed) * SEGMENT_CHUNKS;
+                        int segmentLastChunk = (int) Math.min(lastChunk, (long) segmentFirstChunk + SEGMENT_CHUNKS - 1);
+                        scanSegment(terrain, flora, segmentFirstChunk, segmentLastChunk, stats);
+                    }
+                    return stats;
+                }));
+            }
+            Stats merged = new Stats();
+            for (Future<Stats> worker : workers) {
+                merged.add(worker.get());
+            }
+            return merged;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Streams the columns of a range of chunks of one seed into the statistics.
+     *
+     * @param terrain    The terrain of the seed.
+     * @param flora      The flora of the seed.
+     * @param firstChunk The first chunk to scan.
+     * @param lastChunk  The last chunk to scan, inclusive.
+     * @param stats      The statistics to add to.
+     */
+    private static void scanSegment(Terrain terrain, Flora flora, int firstChunk, int lastChunk, Stats stats) {
+        int baseRow = Math.round(terrain.groundHeightAt(0) / Block.SIZE);
+        int firstColumn = firstChunk * CHUNK_COLUMNS;
+        int previousRow = topRow(terrain, firstColumn - 1);
+        int[] trees = new int[1];
+        for (int chunk = firstChunk; chunk <= lastChunk; chunk++) {
+            for (int column = chunk * CHUNK_COLUMNS; column < (chunk + 1) * CHUNK_COLUMNS; column++) {
+                int row = topRow(terrain, column);
+                stats.heights[clamp(row - baseRow, HEIGHT_RANGE) + HEIGHT_RANGE]++;
+                int step = previousRow - row; // Positive when the ground rises to the right
+                stats.steps[clamp(step, STEP_RANGE) + STEP_RANGE]++;
+                stats.minStep = Math.min(stats.minStep, step);
+                stats.maxStep = Math.max(stats.maxStep, step);
+                // Only climbs can be out of reach: rightward when the ground rises, leftward when it drops
+                if (step * Block.SIZE > Avatar.JUMP_HEIGHT) {
+                    stats.unreachableStepsRight++;
+                } else if (-step * Block.SIZE > Avatar.JUMP_HEIGHT) {
+                    stats.unreachableStepsLeft++;
+                }
+                previousRow = row;
+            }
+            trees[0] = 0;
+            flora.forEachTreeInRange(chunk * Chunk.WIDTH, (chunk + 1) * Chunk.WIDTH, x -> trees[0]++);
+            stats.treesPerChunk[Math.min(trees[0], MAX_TREES_PER_CHUNK)]++;
+            stats.trees += trees[0];
+        }
+        stats.columns += (long) (lastChunk - firstChunk + 1) * CHUNK_COLUMNS;
+    }
+
+    /**
+     * Gets the row of the top block of a column.
+     *
+     * @param terrain The terrain.
+     * @param column  The column, in blocks.
+     * @return The row, in blocks.
+     */
+    private static int topRow(Terrain terrain, int column) {
+        return (int) (terrain.blockTopAt(column * Block.SIZE) / Block.SIZE);
+    }
+
+    /**
+     * Clamps a value into a symmetric range.
+     *
+     * @param value The value.
+     * @param range The largest magnitude kept.
+     * @return The clamped value.
+     */
+    private static int clamp(int value, int range) {
+        return Math.max(-range, Math.min(range, value));
+    }
+
+    /**
+     * Writes the statistics to the output file.
+     *
+     * @param stats The statistics.
+     * @throws IOException If the file could not be written.
+     */
+    private void write(Stats stats) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(out))) {
+            writer.printf("# seeds %d..%d, x in [%d, %d)%n", firstSeed, firstSeed + seeds - 1, minX, maxX);
+            writer.printf("columns %d%n", stats.columns);
+            writer.printf("trees %d (%.4f per column)%n", stats.trees, (double) stats.trees / stats.columns);
+            writer.printf("minStep %d%n", stats.minStep);
+            writer.printf("maxStep %d%n", stats.maxStep);
+            writer.printf("unreachableStepsRight %d (climbs higher than %.0f px walking right)%n",
+                    stats.unreachableStepsRight, Avatar.JUMP_HEIGHT);
+            writer.printf("unreachableStepsLeft %d (climbs higher than %.0f px walking left)%n",
+                    stats.unreachableStepsLeft, Avatar.JUMP_HEIGHT);
+            writer.println();
+            writer.println("# height, in blocks above the ground at x = 0 (edge bins include everything beyond)");
+            for (int i = stats.heights.length - 1; i >= 0; i--) {
+                writeBin(writer, -(i - HEIGHT_RANGE), stats.heights[i]);
+            }
+            writer.println();
+            writer.println("# step to the next column, in blocks (positive is up, edge bins include everything beyond)");
+            for (int i = 0; i < stats.steps.length; i++) {
+                writeBin(writer, i - STEP_RANGE, stats.steps[i]);
+            }
+            writer.println();
+            writer.println("# trees per chunk");
+            for (int i = 0; i < stats.treesPerChunk.length; i++) {
+                writeBin(writer, i, stats.treesPerChunk[i]);
+            }
+        }
+    }
+
+    /**
+     * Writes one histogram bin, skipping empty ones.
+     *
+     * @param writer The output.
+     * @param value  The value of the bin.
+     * @param count  The number of samples in the bin.
+     */
+    private static void writeBin(PrintWriter writer, int value, long count) {
+        if (count > 0) {
+            writer.printf("%d %d%n", value, count);
+        }
+    }
+
+    /**
+     * Fixed-size statistics of scanned columns, owned by a single worker until merged.
+     */
+    private static class Stats {
+        private final long[] heights = new long[HEIGHT_RANGE * 2 + 1];
+        private final long[] steps = new long[STEP_RANGE * 2 + 1];
+        private final long[] treesPerChunk = new long[MAX_TREES_PER_CHUNK + 1];
+        private long columns = 0;
+        private long trees = 0;
+        private long unreachableStepsRight = 0;
+        private long unreachableStepsLeft = 0;
+        private int minStep = Integer.MAX_VALUE;
+        private int maxStep = Integer.MIN_VALUE;
+
+        /**
+         * Adds the statistics of another worker.
+         *
+         * @param other The other statistics.
+         */
+        private void add(Stats other) {
+            for (int i = 0; i < heights.length; i++) {
+                heights[i] += other.heights[i];
+            }
+            for (int i = 0; i < steps.length; i++) {
+                steps[i] += other.steps[i];
+            }
+            for (int i = 0; i < treesPerChunk.length; i++) {
+                treesPerChunk[i] += other.treesPerChunk[i];
+            }
+            columns += other.columns;
+            trees += other.trees;
+            unreachableStepsRight += other.unreachableStepsRight;
+            unreachableStepsLeft += other.unreachableStepsLeft;
+            minStep = Math.min(minStep, other.minStep);
+            maxStep = Math.max(maxStep, other.maxStep);
+        }
+    }
+}
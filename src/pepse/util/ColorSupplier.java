@@ -2,14 +2,16 @@ package pepse.util;
 
 import java.awt.*;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Provides procedurally-generated colors around a pivot.
+ * There is no shared generator: colors are drawn from the caller's generator,
+ * or from the calling thread's, so worlds running side by side never contend.
  * @author Dan Nirel
  */
 public final class ColorSupplier {
     private static final int DEFAULT_COLOR_DELTA = 10;
-    private final static Random random = new Random();
 
     /**
      * Returns a color similar to baseColor, with a default delta.
@@ -29,21 +31,47 @@ public final class ColorSupplier {
      * @return A color similar to baseColor.
      */
     public static Color approximateColor(Color baseColor, int colorDelta) {
+        return approximateColor(baseColor, colorDelta, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Returns a color similar to baseColor, with a default delta, drawn from a given random
+     * generator. A seeded generator gives the same color every time.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param random The random generator to draw the color from.
+     * @return A color similar to baseColor.
+     */
+    public static Color approximateColor(Color baseColor, Random random) {
+        return approximateColor(baseColor, DEFAULT_COLOR_DELTA, random);
+    }
+
+    /**
+     * Returns a color similar to baseColor, with a difference of at most colorDelta,
+     * drawn from a given random generator.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param colorDelta The maximal difference (per channel) between the sampled color and the base color.
+     * @param random The random generator to draw the color from.
+     * @return A color similar to baseColor.
+     */
+    public static Color approximateColor(Color baseColor, int colorDelta, Random random) {
 
         return new Color(
-                randomChannelInRange(baseColor.getRed()-colorDelta, baseColor.getRed()+colorDelta),
-                randomChannelInRange(baseColor.getGreen()-colorDelta, baseColor.getGreen()+colorDelta),
-                randomChannelInRange(baseColor.getBlue()-colorDelta, baseColor.getBlue()+colorDelta));
+                randomChannelInRange(random, baseColor.getRed()-colorDelta, baseColor.getRed()+colorDelta),
+                randomChannelInRange(random, baseColor.getGreen()-colorDelta, baseColor.getGreen()+colorDelta),
+                randomChannelInRange(random, baseColor.getBlue()-colorDelta, baseColor.getBlue()+colorDelta));
     }
 
     /**
      * This method generates a random value for a color channel within the given range [min, max].
      *
+     * @param random The random generator to draw the value from.
      * @param min The lower bound of the given range.
      * @param max The upper bound of the given range.
      * @return A random number in the range [min, max], clipped to [0,255].
      */
-    private static int randomChannelInRange(int min, int max) {
+    private static int randomChannelInRange(Random random, int min, int max) {
         int channel = random.nextInt(max-min+1) + min;
         return Math.min(255, Math.max(channel, 0));
     }
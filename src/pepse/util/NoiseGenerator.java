@@ -1,11 +1,35 @@
 package pepse.util;
 
+/**
+ * Generates pseudo-random noise, offset by a seed.
+ * The permutation table does not depend on the seed, so it is built once and shared,
+ * read-only, by every generator of every world in the process.
+ */
 public class NoiseGenerator {
-    private double seed;
-    private long default_size;
-    private int[] p;
-    private int[] permutation;
-    private double startPoint;
+    private static final int TABLE_SIZE = 256;
+    private static final int[] PERMUTATION = {151, 160, 137, 91, 90, 15, 131, 13, 201,
+            95, 96, 53, 194, 233, 7, 225, 140, 36, 103, 30, 69, 142, 8, 99,
+            37, 240, 21, 10, 23, 190, 6, 148, 247, 120, 234, 75, 0, 26,
+            197, 62, 94, 252, 219, 203, 117, 35, 11, 32, 57, 177, 33, 88,
+            237, 149, 56, 87, 174, 20, 125, 136, 171, 168, 68, 175, 74,
+            165, 71, 134, 139, 48, 27, 166, 77, 146, 158, 231, 83, 111,
+            229, 122, 60, 211, 133, 230, 220, 105, 92, 41, 55, 46, 245, 40,
+            244, 102, 143, 54, 65, 25, 63, 161, 1, 216, 80, 73, 209, 76,
+            132, 187, 208, 89, 18, 169, 200, 196, 135, 130, 116, 188, 159,
+            86, 164, 100, 109, 198, 173, 186, 3, 64, 52, 217, 226, 250,
+            124, 123, 5, 202, 38, 147, 118, 126, 255, 82, 85, 212, 207,
+            206, 59, 227, 47, 16, 58, 17, 182, 189, 28, 42, 223, 183, 170,
+            213, 119, 248, 152, 2, 44, 154, 163, 70, 221, 153, 101, 155,
+            167, 43, 172, 9, 129, 22, 39, 253, 19, 98, 108, 110, 79, 113,
+            224, 232, 178, 185, 112, 104, 218, 246, 97, 228, 251, 34, 242,
+            193, 238, 210, 144, 12, 191, 179, 162, 241, 81, 51, 145, 235,
+            249, 14, 239, 107, 49, 192, 214, 31, 181, 199, 106, 157, 184,
+            84, 204, 176, 115, 121, 50, 45, 127, 4, 150, 254, 138, 236,
+            205, 93, 222, 114, 67, 29, 24, 72, 243, 141, 128, 195, 78, 66,
+            215, 61, 156, 180};
+    private static final int[] P = createTable(); // The permutation repeated twice, to skip index wrapping
+    private final double seed;
+    private final double startPoint;
 
     /**
      * The constructor of the NoiseGenerator class.
@@ -22,39 +46,19 @@ public class NoiseGenerator {
     public NoiseGenerator(double seed, int startPoint) {
         this.seed = seed;
         this.startPoint = startPoint;
-        init();
     }
 
-    private void init() {
-        // Initialize the permutation array.
-        this.p = new int[512];
-        this.permutation = new int[]{151, 160, 137, 91, 90, 15, 131, 13, 201,
-                95, 96, 53, 194, 233, 7, 225, 140, 36, 103, 30, 69, 142, 8, 99,
-                37, 240, 21, 10, 23, 190, 6, 148, 247, 120, 234, 75, 0, 26,
-                197, 62, 94, 252, 219, 203, 117, 35, 11, 32, 57, 177, 33, 88,
-                237, 149, 56, 87, 174, 20, 125, 136, 171, 168, 68, 175, 74,
-                165, 71, 134, 139, 48, 27, 166, 77, 146, 158, 231, 83, 111,
-                229, 122, 60, 211, 133, 230, 220, 105, 92, 41, 55, 46, 245, 40,
-                244, 102, 143, 54, 65, 25, 63, 161, 1, 216, 80, 73, 209, 76,
-                132, 187, 208, 89, 18, 169, 200, 196, 135, 130, 116, 188, 159,
-                86, 164, 100, 109, 198, 173, 186, 3, 64, 52, 217, 226, 250,
-                124, 123, 5, 202, 38, 147, 118, 126, 255, 82, 85, 212, 207,
-                206, 59, 227, 47, 16, 58, 17, 182, 189, 28, 42, 223, 183, 170,
-                213, 119, 248, 152, 2, 44, 154, 163, 70, 221, 153, 101, 155,
-                167, 43, 172, 9, 129, 22, 39, 253, 19, 98, 108, 110, 79, 113,
-                224, 232, 178, 185, 112, 104, 218, 246, 97, 228, 251, 34, 242,
-                193, 238, 210, 144, 12, 191, 179, 162, 241, 81, 51, 145, 235,
-                249, 14, 239, 107, 49, 192, 214, 31, 181, 199, 106, 157, 184,
-                84, 204, 176, 115, 121, 50, 45, 127, 4, 150, 254, 138, 236,
-                205, 93, 222, 114, 67, 29, 24, 72, 243, 141, 128, 195, 78, 66,
-                215, 61, 156, 180};
-        this.default_size = 35;
-
-        // Populate it
-        for (int i = 0; i < 256; i++) {
-            p[256 + i] = p[i] = permutation[i];
+    /**
+     * Builds the shared lookup table from the permutation.
+     *
+     * @return The permutation, repeated twice.
+     */
+    private static int[] createTable() {
+        int[] table = new int[TABLE_SIZE * 2];
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            table[TABLE_SIZE + i] = table[i] = PERMUTATION[i];
         }
-
+        return table;
     }
 
     /**
@@ -84,7 +88,15 @@ public class NoiseGenerator {
     }
 
 
-    private double smoothNoise(double x, double y, double z) {
+    /**
+     * Samples a single octave of the noise at a point, offset by the seed.
+     *
+     * @param x The x-coordinate of the point, in noise units.
+     * @param y The y-coordinate of the point, in noise units.
+     * @param z The z-coordinate of the point, in noise units.
+     * @return The noise value, roughly in [-1, 1].
+     */
+    public double smoothNoise(double x, double y, double z) {
         // Offset each coordinate by the seed value
         x += this.seed;
         y += this.seed;
@@ -102,21 +114,21 @@ public class NoiseGenerator {
         double v = fade(y); // FOR EACH OF X,Y,Z.
         double w = fade(z);
 
-        int A = p[X] + Y;
-        int AA = p[A] + Z;
-        int AB = p[A + 1] + Z; // HASH COORDINATES OF
-        int B = p[X + 1] + Y;
-        int BA = p[B] + Z;
-        int BB = p[B + 1] + Z; // THE 8 CUBE CORNERS,
-
-        return lerp(w, lerp(v, lerp(u, grad(p[AA], x, y, z),    // AND ADD
-                                grad(p[BA], x - 1, y, z)), // BLENDED
-                        lerp(u, grad(p[AB], x, y - 1, z),    // RESULTS
-                                grad(p[BB], x - 1, y - 1, z))),// FROM 8
-                lerp(v, lerp(u, grad(p[AA + 1], x, y, z - 1),    // CORNERS
-                                grad(p[BA + 1], x - 1, y, z - 1)), // OF CUBE
-                        lerp(u, grad(p[AB + 1], x, y - 1, z - 1),
-                                grad(p[BB + 1], x - 1, y - 1, z - 1))));
+        int A = P[X] + Y;
+        int AA = P[A] + Z;
+        int AB = P[A + 1] + Z; // HASH COORDINATES OF
+        int B = P[X + 1] + Y;
+        int BA = P[B] + Z;
+        int BB = P[B + 1] + Z; // THE 8 CUBE CORNERS,
+
+        return lerp(w, lerp(v, lerp(u, grad(P[AA], x, y, z),    // AND ADD
+                                grad(P[BA], x - 1, y, z)), // BLENDED
+                        lerp(u, grad(P[AB], x, y - 1, z),    // RESULTS
+                                grad(P[BB], x - 1, y - 1, z))),// FROM 8
+                lerp(v, lerp(u, grad(P[AA + 1], x, y, z - 1),    // CORNERS
+                                grad(P[BA + 1], x - 1, y, z - 1)), // OF CUBE
+                        lerp(u, grad(P[AB + 1], x, y - 1, z - 1),
+                                grad(P[BB + 1], x - 1, y - 1, z - 1))));
     }
 
     private double fade(double t) {
@@ -0,0 +1,152 @@
+package pepse.world;
+
+import pepse.events.WorldBufferEvent;
+
+/**
+ * Chooses how many chunks to keep generated beyond each screen edge, from the
+ * avatar's horizontal velocity, the measured cost of generating a chunk and the
+ * spare time left in the frame. More is generated ahead in the direction of travel
+ * and less is kept behind, and nothing beyond one chunk when the avatar stands still.
+ * Every change of margins is reported as a {@link WorldBufferEvent}.
+ */
+public class AdaptiveWorldBuffer {
+    private static final float LOOKAHEAD_TIME = 0.5f; // Seconds of travel generated ahead
+    private static final float IDLE_SPEED = 1f; // Below this speed the avatar is standing still
+    private static final int IDLE_CHUNKS = 1;
+    private static final int BEHIND_CHUNKS = 0; // Beyond the screen edge, while moving
+    private static final int MAX_AHEAD_CHUNKS = 8;
+    private static final double SMOOTHING = 0.1; // Weight of a new measurement in the averages
+    private static final long INITIAL_CHUNK_COST_NANOS = 2_000_000;
+    private static final long MIN_GENERATION_BUDGET_NANOS = 1_000_000;
+    private static final long MAX_GENERATION_BUDGET_NANOS = 8_000_000;
+    private static final float SPARE_TIME_SHARE = 0.5f; // Share of the spare time given to generation
+    private final long targetFrameNanos;
+    private double chunkCostNanos = INITIAL_CHUNK_COST_NANOS;
+    private double frameWorkNanos = 0;
+    private int leftChunks = IDLE_CHUNKS;
+    private int rightChunks = IDLE_CHUNKS;
+    private long generationBudgetNanos = MIN_GENERATION_BUDGET_NANOS;
+
+    /**
+     * Constructor for the AdaptiveWorldBuffer class.
+     *
+     * @param targetFrameTime The frame time the game aims for, in seconds.
+     */
+    public AdaptiveWorldBuffer(float targetFrameTime) {
+        this.targetFrameNanos = (long) (targetFrameTime * 1e9);
+    }
+
+    /**
+     * Records how long generating a chunk took.
+     *
+     * @param nanos The generation time, in nanoseconds.
+     */
+    public void recordChunkGenerated(long nanos) {
+        chunkCostNanos += (nanos - chunkCostNanos) * SMOOTHING;
+    }
+
+    /**
+     * Records how long the game's work for a frame took.
+     *
+     * @param nanos The frame work time, in nanoseconds.
+     */
+    public void recordFrameWork(long nanos) {
+        frameWorkNanos += (nanos - frameWorkNanos) * SMOOTHING;
+    }
+
+    /**
+     * Chooses the margins and the generation budget for the current avatar velocity.
+     *
+     * @param velocityX The avatar's horizontal velocity, in pixels per second.
+     */
+    public void update(float velocityX) {
+        long spareNanos = getSpareFrameNanos();
+        long budget = Math.max(MIN_GENERATION_BUDGET_NANOS,
+                Math.min(MAX_GENERATION_BUDGET_NANOS, (long) (spareNanos * SPARE_TIME_SHARE)));
+
+        int ahead = IDLE_CHUNKS;
+        int behind = IDLE_CHUNKS;
+        float speed = Math.abs(velocityX);
+        if (speed > IDLE_SPEED) {
+            // Frames needed to generate one chunk with the budget we have, and the
+            // distance travelled meanwhile, on top of the plain lookahead
+            double lagTime = Math.ceil(chunkCostNanos / budget) * targetFrameNanos / 1e9;
+            double distance = speed * (LOOKAHEAD_TIME + lagTime);
+            ahead = (int) Math.min(MAX_AHEAD_CHUNKS, Math.max(IDLE_CHUNKS, Math.ceil(distance / Chunk.WIDTH)));
+            behind = BEHIND_CHUNKS;
+        }
+        int left = velocityX < 0 ? ahead : behind;
+        int right = velocityX < 0 ? behind : ahead;
+
+        boolean changed = left != leftChunks || right != rightChunks;
+        leftChunks = left;
+        rightChunks = right;
+        generationBudgetNanos = budget;
+        if (changed) {
+            reportMargins(velocityX);
+        }
+    }
+
+    /**
+     * Gets the number of chunks to keep generated beyond the left screen edge.
+     *
+     * @return The left margin, in chunks.
+     */
+    public int getLeftChunks() {
+        return leftChunks;
+    }
+
+    /**
+     * Gets the number of chunks to keep generated beyond the right screen edge.
+     *
+     * @return The right margin, in chunks.
+     */
+    public int getRightChunks() {
+        return rightChunks;
+    }
+
+    /**
+     * Gets the time the current step may spend generating off-screen chunks.
+     *
+     * @return The generation budget, in nanoseconds.
+     */
+    public long getGenerationBudgetNanos() {
+        return generationBudgetNanos;
+    }
+
+    /**
+     * Gets the average time it takes to generate a chunk.
+     *
+     * @return The chunk cost, in nanoseconds.
+     */
+    public long getChunkCostNanos() {
+        return (long) chunkCostNanos;
+    }
+
+    /**
+     * Gets the average time left in a frame after the game's work.
+     *
+     * @return The spare frame time, in nanoseconds, or 0 if the frame is over budget.
+     */
+    public long getSpareFrameNanos() {
+        return Math.max(0, targetFrameNanos - (long) frameWorkNanos);
+    }
+
+    /**
+     * Reports the current margins as a JFR event.
+     *
+     * @param velocityX The avatar's horizontal velocity.
+     */
+    private void reportMargins(float velocityX) {
+        WorldBufferEvent event = new WorldBufferEvent();
+        if (event.shouldCommit()) {
+            event.velocityX = velocityX;
+            event.leftChunks = leftChunks;
+            event.rightChunks = rightChunks;
+            event.chunkCost = getChunkCostNanos();
+            event.spareFrameTime = getSpareFrameNanos();
+            event.generationBudget = generationBudgetNanos;
+            event.commit();
+        }
+    }
+}
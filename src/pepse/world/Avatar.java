@@ -6,11 +6,13 @@ import danogl.gui.UserInputListener;
 import danogl.gui.rendering.AnimationRenderable;
 import danogl.gui.rendering.ImageRenderable;
 import danogl.util.Vector2;
+import pepse.events.JumpFanOutEvent;
 
 import java.awt.event.KeyEvent;
 import java.awt.image.BufferedImage;
-import java.util.LinkedList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import static java.lang.Math.min;
 
@@ -19,26 +21,27 @@ import static java.lang.Math.min;
  */
 public class Avatar extends GameObject {
     // Constants for movement and animation
-    private static final float VELOCITY_X = 400;
-    private static final float VELOCITY_Y = -650;
-    private static final float GRAVITY = 600;
+    static final float VELOCITY_X = 400;
+    static final float VELOCITY_Y = -650;
+    static final float GRAVITY = 600;
+    public static final float JUMP_HEIGHT = VELOCITY_Y * VELOCITY_Y / (2 * GRAVITY); // From standing
     private static final String[] IDLE_IMAGES = {"assets/idle_0.png",
             "assets/idle_1.png", "assets/idle_2.png", "assets/idle_3.png"};
-    private static final String[] RUN_IMAGES = {"assets/run_0.png",
+    static final String[] RUN_IMAGES = {"assets/run_0.png",
             "assets/run_1.png", "assets/run_2.png", "assets/run_3.png",
             "assets/run_4.png", "assets/run_5.png"};
-    private static final String[] JUMP_IMAGES = {"assets/jump_0.png",
+    static final String[] JUMP_IMAGES = {"assets/jump_0.png",
             "assets/jump_1.png", "assets/jump_2.png", "assets/jump_3.png"};
     public static final int AVATAR_HEIGHT = 50;
     private static final int FULL_ENERGY = 1000000;
     private static final double STEP_ENERGY = 0.5;
     private static final double JUMP_ENERGY = 10;
     private static final String AVATAR_TAG = "avatar";
-    private static final float ANIMATION_SPEED = 0.2f;
+    static final float ANIMATION_SPEED = 0.2f;
 
     // Avatar state and energy
     private AvatarState avatarState = AvatarState.IDLE;
-    private List<Runnable> onJump = new LinkedList<>();
+    private final Set<Runnable> onJump = new LinkedHashSet<>();
     private double energy = FULL_ENERGY;
 
     // Input listener and image reader
@@ -83,6 +86,24 @@ public class Avatar extends GameObject {
         this.onJump.addAll(onJump);
     }
 
+    /**
+     * Gets the number of actions currently performed on jump.
+     *
+     * @return The number of jump actions.
+     */
+    public int getJumpListenerCount() {
+        return onJump.size();
+    }
+
+    /**
+     * Removes actions that were added with {@link #addOnJump(List)}.
+     *
+     * @param onJump The actions to stop performing on jump.
+     */
+    public void removeOnJump(List<Runnable> onJump) {
+        onJump.forEach(this.onJump::remove);
+    }
+
 
     @Override
     public void update(float deltaTime) {
@@ -144,7 +165,14 @@ public class Avatar extends GameObject {
         if (energy < JUMP_ENERGY) return;
         avatarState = AvatarState.JUMPING;
         setAnimation(JUMP_IMAGES);
+        JumpFanOutEvent event = new JumpFanOutEvent();
+        event.begin();
         onJump.forEach(Runnable::run);
+        event.end();
+        if (event.shouldCommit()) {
+            event.listeners = onJump.size();
+            event.commit();
+        }
         energy -= JUMP_ENERGY;
         transform().setVelocityY(VELOCITY_Y);
     }
@@ -0,0 +1,69 @@
+package pepse.world;
+
+import java.awt.*;
+
+/**
+ * The biomes of the world, each placed at a value of the biome noise field.
+ * Between two biomes, their parameters are blended.
+ */
+public enum Biome {
+    PLAINS(-0.3f, new Color(222, 150, 84), 0.4f, 0.05),
+    FOREST(0f, new Color(212, 123, 74), 1f, 0.3),
+    HILLS(0.3f, new Color(160, 110, 90), 2f, 0.1);
+
+    private final float fieldValue;
+    private final Color groundColor;
+    private final float amplitude;
+    private final double treeProbability;
+
+    /**
+     * Constructor for the Biome enum.
+     *
+     * @param fieldValue      The biome field value at which this biome is at its purest.
+     * @param groundColor     The base colour of the terrain blocks.
+     * @param amplitude       The multiplier of the terrain height noise.
+     * @param treeProbability The probability of a tree in a tree column.
+     */
+    Biome(float fieldValue, Color groundColor, float amplitude, double treeProbability) {
+        this.fieldValue = fieldValue;
+        this.groundColor = groundColor;
+        this.amplitude = amplitude;
+        this.treeProbability = treeProbability;
+    }
+
+    /**
+     * Gets the biome field value at which this biome is at its purest.
+     *
+     * @return The field value.
+     */
+    public float getFieldValue() {
+        return fieldValue;
+    }
+
+    /**
+     * Gets the base colour of the terrain blocks.
+     *
+     * @return The ground colour.
+     */
+    public Color getGroundColor() {
+        return groundColor;
+    }
+
+    /**
+     * Gets the multiplier of the terrain height noise.
+     *
+     * @return The amplitude.
+     */
+    public float getAmplitude() {
+        return amplitude;
+    }
+
+    /**
+     * Gets the probability of a tree in a tree column.
+     *
+     * @return The tree probability.
+     */
+    public double getTreeProbability() {
+        return treeProbability;
+    }
+}
@@ -0,0 +1,157 @@
+package pepse.world;
+
+import pepse.util.NoiseGenerator;
+
+import java.awt.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A low-frequency noise field choosing the biome of every part of the world.
+ * The noise is sampled once per chunk edge and linearly interpolated for the columns
+ * in between, so the field is cheap to read at every x. The samples are cached.
+ */
+public class BiomeField {
+    private static final int SEED_OFFSET = 7919; // Keeps the biome noise apart from the height noise
+    private static final int SCALE_CHUNKS = 16; // Chunks across the widest biome features
+    private static final int MAX_CACHED_SAMPLES = 1024;
+    private static final Biome[] BIOMES = Biome.values();
+
+    private final NoiseGenerator noiseGenerator;
+    // Per chunk index, the field value at the chunk's left edge, in access order
+    private final LinkedHashMap<Integer, Float> samples = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Float> eldest) {
+            return size() > MAX_CACHED_SAMPLES;
+        }
+    };
+
+    /**
+     * Constructor for the BiomeField class.
+     *
+     * @param seed The world seed.
+     */
+    public BiomeField(int seed) {
+        this.noiseGenerator = new NoiseGenerator(seed + SEED_OFFSET, SCALE_CHUNKS);
+    }
+
+    /**
+     * Gets the biome field value at an x-coordinate, interpolated between the
+     * samples at the edges of its chunk.
+     *
+     * @param x The x-coordinate.
+     * @return The field value, around [-1, 1].
+     */
+    public float valueAt(double x) {
+        int chunkIndex = Chunk.indexAt(x);
+        float t = (float) ((x - (double) chunkIndex * Chunk.WIDTH) / Chunk.WIDTH);
+        float left = sample(chunkIndex);
+        float right = sample(chunkIndex + 1);
+        return left + (right - left) * t;
+    }
+
+    /**
+     * Gets the dominant biome at an x-coordinate.
+     *
+     * @param x The x-coordinate.
+     * @return The biome whose field value is closest.
+     */
+    public Biome biomeAt(double x) {
+        float value = valueAt(x);
+        Biome closest = BIOMES[0];
+        for (Biome biome : BIOMES) {
+            if (Math.abs(biome.getFieldValue() - value) < Math.abs(closest.getFieldValue() - value)) {
+                closest = biome;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Gets the terrain height amplitude at an x-coordinate.
+     *
+     * @param x The x-coordinate.
+     * @return The multiplier of the terrain height noise.
+     */
+    public float amplitudeAt(double x) {
+        float value = valueAt(x);
+        int index = lowerBiome(value);
+        float t = blendFactor(value, index);
+        return BIOMES[index].getAmplitude()
+                + (BIOMES[index + 1].getAmplitude() - BIOMES[index].getAmplitude()) * t;
+    }
+
+    /**
+     * Gets the probability of a tree at an x-coordinate.
+     *
+     * @param x The x-coordinate.
+     * @return The tree probability.
+     */
+    public double treeProbabilityAt(double x) {
+        float value = valueAt(x);
+        int index = lowerBiome(value);
+        float t = blendFactor(value, index);
+        return BIOMES[index].getTreeProbability()
+                + (BIOMES[index + 1].getTreeProbability() - BIOMES[index].getTreeProbability()) * t;
+    }
+
+    /**
+     * Gets the base colour of the terrain at an x-coordinate.
+     *
+     * @param x The x-coordinate.
+     * @return The ground colour.
+     */
+    public Color groundColorAt(double x) {
+        float value = valueAt(x);
+        int index = lowerBiome(value);
+        float t = blendFactor(value, index);
+        Color from = BIOMES[index].getGroundColor();
+        Color to = BIOMES[index + 1].getGroundColor();
+        return new Color(
+                Math.round(from.getRed() + (to.getRed() - from.getRed()) * t),
+                Math.round(from.getGreen() + (to.getGreen() - from.getGreen()) * t),
+                Math.round(from.getBlue() + (to.getBlue() - from.getBlue()) * t));
+    }
+
+    /**
+     * Samples the noise at a chunk's left edge, once per chunk.
+     *
+     * @param chunkIndex The index of the chunk.
+     * @return The field value at the chunk's left edge.
+     */
+    private float sample(int chunkIndex) {
+        Float value = samples.get(chunkIndex);
+        if (value == null) {
+            value = (float) noiseGenerator.noise(chunkIndex, 1);
+            samples.put(chunkIndex, value);
+        }
+        return value;
+    }
+
+    /**
+     * Finds the biome just below a field value, so it and the next one can be blended.
+     *
+     * @param value The field value.
+     * @return The index of the lower biome, at most the second to last.
+     */
+    private static int lowerBiome(float value) {
+        int index = 0;
+        while (index < BIOMES.length - 2 && value > BIOMES[index + 1].getFieldValue()) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Computes how far a field value is between a biome and the next one.
+     *
+     * @param value The field value.
+     * @param index The index of the lower biome.
+     * @return The blend factor, clamped to [0, 1].
+     */
+    private static float blendFactor(float value, int index) {
+        float from = BIOMES[index].getFieldValue();
+        float to = BIOMES[index + 1].getFieldValue();
+        return Math.max(0, Math.min(1, (value - from) / (to - from)));
+    }
+}
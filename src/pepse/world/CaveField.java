@@ -0,0 +1,144 @@
+package pepse.world;
+
+import pepse.util.NoiseGenerator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A 2D noise density field carving caves and overhangs out of the terrain.
+ * The noise is evaluated on a coarse lattice per chunk, covering only the rows the
+ * chunk's terrain spans, and bilinearly interpolated for the cells in between.
+ * Lattice points lie on absolute coordinates, so neighbouring chunks share their edge
+ * values and caves run smoothly across chunks. The lattices of recent chunks are cached.
+ */
+public class CaveField {
+    private static final int SEED_OFFSET = 104729; // Keeps the cave noise apart from the other noises
+    private static final int LATTICE_COLUMNS = 5; // Cells between lattice points along x, divides the chunk width
+    private static final int LATTICE_ROWS = 2; // Cells between lattice points along y
+    private static final int POINTS_PER_ROW = Chunk.WIDTH / Block.SIZE / LATTICE_COLUMNS + 1;
+    private static final double NOISE_SCALE_X = 12; // Cells per noise unit; caves are wider than tall
+    private static final double NOISE_SCALE_Y = 6;
+    private static final float CAVE_THRESHOLD = 0.22f; // Density above which a cell is carved
+    private static final int ROOF_ROWS = 2; // Solid rows kept at the top of every column
+    private static final int FLOOR_ROWS = 1; // Solid rows kept at the bottom of every column
+    private static final int MAX_CACHED_CHUNKS = 512;
+
+    private final NoiseGenerator noiseGenerator;
+    private final IntUnaryOperator topRowOfColumn;
+    private final int depth;
+    private int latticesBuilt = 0;
+    // Per chunk index, the density lattice over the rows of the chunk's terrain, in access order
+    private final LinkedHashMap<Integer, Lattice> lattices = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Lattice> eldest) {
+            return size() > MAX_CACHED_CHUNKS;
+        }
+    };
+
+    /**
+     * The density samples of one chunk.
+     *
+     * @param firstRow The row of the first line of lattice points, a multiple of LATTICE_ROWS.
+     * @param lines    The number of lines of lattice points.
+     * @param values   The densities, line by line, POINTS_PER_ROW per line.
+     */
+    private record Lattice(int firstRow, int lines, float[] values) {
+    }
+
+    /**
+     * Constructor for the CaveField class.
+     *
+     * @param seed           The world seed.
+     * @param topRowOfColumn Gets the row of the top block of a terrain column.
+     * @param depth          The number of rows of every terrain column.
+     */
+    public CaveField(int seed, IntUnaryOperator topRowOfColumn, int depth) {
+        this.noiseGenerator = new NoiseGenerator(seed + SEED_OFFSET, 1);
+        this.topRowOfColumn = topRowOfColumn;
+        this.depth = depth;
+    }
+
+    /**
+     * Checks whether a terrain cell is carved out. The top and bottom rows of every
+     * column are never carved, so the surface profile of the terrain is kept.
+     *
+     * @param cellX   The column of the cell, in blocks.
+     * @param cellY   The row of the cell, in blocks.
+     * @param topCell The row of the top block of the column.
+     * @return True if the cell is empty.
+     */
+    public boolean isCarved(int cellX, int cellY, int topCell) {
+        if (cellY < topCell + ROOF_ROWS || cellY >= topCell + depth - FLOOR_ROWS) {
+            return false;
+        }
+        return densityAt(cellX, cellY) > CAVE_THRESHOLD;
+    }
+
+    /**
+     * Gets the number of chunk lattices evaluated since the field was created.
+     *
+     * @return The number of lattices built.
+     */
+    public int getLatticesBuilt() {
+        return latticesBuilt;
+    }
+
+    /**
+     * Gets the density of a cell, interpolated from the lattice of its chunk.
+     *
+     * @param cellX The column of the cell, in blocks.
+     * @param cellY The row of the cell, in blocks, within the rows of the column's terrain.
+     * @return The density.
+     */
+    private float densityAt(int cellX, int cellY) {
+        int chunkIndex = TerrainEdits.chunkIndexOf(cellX);
+        Lattice lattice = lattices.get(chunkIndex);
+        if (lattice == null) {
+            lattice = buildLattice(chunkIndex);
+            lattices.put(chunkIndex, lattice);
+        }
+        int localX = cellX - chunkIndex * (Chunk.WIDTH / Block.SIZE);
+        int point = localX / LATTICE_COLUMNS;
+        float tx = (float) (localX % LATTICE_COLUMNS) / LATTICE_COLUMNS;
+        int line = (cellY - lattice.firstRow()) / LATTICE_ROWS;
+        float ty = (float) ((cellY - lattice.firstRow()) % LATTICE_ROWS) / LATTICE_ROWS;
+        float[] values = lattice.values();
+        int index = line * POINTS_PER_ROW + point;
+        float top = values[index] + (values[index + 1] - values[index]) * tx;
+        float bottom = values[index + POINTS_PER_ROW]
+                + (values[index + POINTS_PER_ROW + 1] - values[index + POINTS_PER_ROW]) * tx;
+        return top + (bottom - top) * ty;
+    }
+
+    /**
+     * Evaluates the noise on the lattice points covering the rows of a chunk's terrain.
+     *
+     * @param chunkIndex The chunk index.
+     * @return The lattice of the chunk.
+     */
+    private Lattice buildLattice(int chunkIndex) {
+        int firstColumn = chunkIndex * (Chunk.WIDTH / Block.SIZE);
+        int minTop = Integer.MAX_VALUE;
+        int maxTop = Integer.MIN_VALUE;
+        for (int column = firstColumn; column < firstColumn + Chunk.WIDTH / Block.SIZE; column++) {
+            int top = topRowOfColumn.applyAsInt(column);
+            minTop = Math.min(minTop, top);
+            maxTop = Math.max(maxTop, top);
+        }
+        int firstRow = Math.floorDiv(minTop, LATTICE_ROWS) * LATTICE_ROWS;
+        int lines = Math.floorDiv(maxTop + depth - 1 - firstRow, LATTICE_ROWS) + 2;
+
+        float[] values = new float[lines * POINTS_PER_ROW];
+        for (int line = 0; line < lines; line++) {
+            double y = (firstRow + line * LATTICE_ROWS) / NOISE_SCALE_Y;
+            for (int point = 0; point < POINTS_PER_ROW; point++) {
+                double x = (firstColumn + point * LATTICE_COLUMNS) / NOISE_SCALE_X;
+                values[line * POINTS_PER_ROW + point] = (float) noiseGenerator.smoothNoise(x, y, 0);
+            }
+        }
+        latticesBuilt++;
+        return new Lattice(firstRow, lines, values);
+    }
+}
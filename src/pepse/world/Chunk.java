@@ -0,0 +1,84 @@
+package pepse.world;
+
+import pepse.world.trees.Tree;
+
+import java.util.List;
+
+/**
+ * A fixed-width vertical slice of the world, the unit in which terrain
+ * and flora are generated, loaded and evicted.
+ */
+public class Chunk {
+    public static final int WIDTH = Block.SIZE * 10;
+    private final int index;
+    private final List<Block> blocks;
+    private final List<Tree> trees;
+
+    /**
+     * Constructor for the Chunk class.
+     *
+     * @param index  The index of the chunk; chunk i covers [i * WIDTH, (i + 1) * WIDTH).
+     * @param blocks The terrain blocks of the chunk.
+     * @param trees  The trees of the chunk.
+     */
+    public Chunk(int index, List<Block> blocks, List<Tree> trees) {
+        this.index = index;
+        this.blocks = blocks;
+        this.trees = trees;
+    }
+
+    /**
+     * Finds the index of the chunk containing an x-coordinate.
+     *
+     * @param x The x-coordinate.
+     * @return The index of the chunk.
+     */
+    public static int indexAt(double x) {
+        return (int) Math.floor(x / WIDTH);
+    }
+
+    /**
+     * Gets the index of the chunk.
+     *
+     * @return The chunk index.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the left edge of the chunk.
+     *
+     * @return The minimal x-coordinate of the chunk.
+     */
+    public int getMinX() {
+        return index * WIDTH;
+    }
+
+    /**
+     * Gets the right edge of the chunk.
+     *
+     * @return The x-coordinate just after the chunk.
+     */
+    public int getMaxX() {
+        return (index + 1) * WIDTH;
+    }
+
+    /**
+     * Gets the terrain blocks of the chunk.
+     *
+     * @return The blocks.
+     */
+    public List<Block> getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * Gets the trees of the chunk.
+     *
+     * @return The trees.
+     */
+    public List<Tree> getTrees() {
+        return trees;
+    }
+}
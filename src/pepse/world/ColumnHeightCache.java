@@ -0,0 +1,66 @@
+package pepse.world;
+
+/**
+ * A cache of the surface height of the terrain columns, for systems that need the
+ * ground under many points every frame without touching the terrain blocks.
+ * Columns are kept in a fixed ring of slots, so the cache never grows however far
+ * the world is explored. Edited columns must be invalidated.
+ */
+public class ColumnHeightCache {
+    private static final int CAPACITY = 4096; // Columns kept, a power of two
+    private static final int SLOT_MASK = CAPACITY - 1;
+    private final Terrain terrain;
+    private final int[] columns = new int[CAPACITY];
+    private final float[] heights = new float[CAPACITY];
+    private final boolean[] filled = new boolean[CAPACITY];
+
+    /**
+     * Constructor for the ColumnHeightCache class.
+     *
+     * @param terrain The terrain whose columns are cached.
+     */
+    public ColumnHeightCache(Terrain terrain) {
+        this.terrain = terrain;
+    }
+
+    /**
+     * Gets the surface height of the column containing an x-coordinate.
+     *
+     * @param x The x-coordinate, relative to the world origin.
+     * @return The y-coordinate of the top of the column's highest block.
+     */
+    public float surfaceAt(float x) {
+        return surfaceOfColumn(terrain.getOrigin().cellAt(x, Block.SIZE));
+    }
+
+    /**
+     * Gets the surface height of a column.
+     *
+     * @param cellX The column, in blocks.
+     * @return The y-coordinate of the top of the column's highest block.
+     */
+    public float surfaceOfColumn(int cellX) {
+        int slot = cellX & SLOT_MASK;
+        if (!filled[slot] || columns[slot] != cellX) {
+            columns[slot] = cellX;
+            heights[slot] = terrain.surfaceTopAt(cellX);
+            filled[slot] = true;
+        }
+        return heights[slot];
+    }
+
+    /**
+     * Forgets the cached heights of the columns in a range, after they were edited.
+     *
+     * @param minX The minimum absolute x-coordinate of the range.
+     * @param maxX The maximum absolute x-coordinate of the range.
+     */
+    public void invalidate(int minX, int maxX) {
+        for (int cellX = Math.floorDiv(minX, Block.SIZE); cellX * Block.SIZE < maxX; cellX++) {
+            int slot = cellX & SLOT_MASK;
+            if (columns[slot] == cellX) {
+                filled[slot] = false;
+            }
+        }
+    }
+}
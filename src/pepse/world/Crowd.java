@@ -0,0 +1,391 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.gui.ImageReader;
+import danogl.gui.rendering.Camera;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.util.Vector2;
+import pepse.world.trees.Fruit;
+import pepse.world.trees.FruitPickupGrid;
+import pepse.world.trees.Tree;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+
+/**
+ * A crowd of walkers that run, jump and eat fruit like the avatar, simulated in batch.
+ * Walkers are not game objects: their state is kept in primitive arrays, they stand on
+ * the cached column heights instead of colliding with blocks, they share one set of
+ * animation frames taken from the avatar, and they find fruit through the pickup grid.
+ * All walkers on screen are drawn into a single image shown by this object, once per
+ * rendered frame rather than once per simulation step.
+ * Walkers that wander too far from the avatar are brought back near it.
+ */
+public class Crowd extends GameObject {
+    private static final String CROWD_TAG = "crowd";
+    private static final int WALKER_SIZE = 40;
+    private static final float WALK_SPEED = Avatar.VELOCITY_X * 0.4f;
+    private static final float STEP_HEIGHT = Block.SIZE / 2f; // Highest ledge walked over without jumping
+    private static final float TURN_CHANCE = 0.2f; // Per second
+    private static final float JUMP_CHANCE = 0.3f; // Per second
+    private static final float FULL_ENERGY = 100;
+    private static final float WALK_ENERGY = 2; // Per second of walking
+    private static final float JUMP_ENERGY = 10;
+    private static final float REST_ENERGY = 10; // Regained per second of resting
+    private static final float FRUIT_ENERGY = 10;
+    private static final float RECALL_DISTANCE = 3000; // Walkers farther from the avatar are brought back
+    private static final float SPAWN_DISTANCE = 1500;
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final double THROUGHPUT_SMOOTHING = 0.05;
+
+    private final int size;
+    private final Camera camera;
+    private final ColumnHeightCache columnHeights;
+    private final FruitPickupGrid fruitPickupGrid;
+    private final BiPredicate<Tree, Fruit> fruitEater;
+    private final Supplier<Vector2> avatarCenter;
+    private final Random random;
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+    private final int[][] runFrames;
+    private final int[][] jumpFrames;
+    private final List<FruitPickupGrid.Pickup> pickups = new ArrayList<>();
+
+    // Walker state, one entry per walker
+    private final float[] x;
+    private final float[] y;
+    private final float[] velocityY;
+    private final byte[] direction;
+    private final boolean[] onGround;
+    private final float[] energy;
+    private final float[] animationOffset;
+    private float time = 0;
+    private boolean moved = false; // Whether the walkers moved since they were last drawn
+    private float drawnViewX = Float.NaN; // The camera center the image was last drawn for
+    private float drawnViewY = Float.NaN;
+    private double walkersPerMillisecond = 0;
+    private int fruitsEaten = 0;
+
+    /**
+     * Constructor for the Crowd class.
+     *
+     * @param size             The number of walkers.
+     * @param windowDimensions The dimensions of the game window.
+     * @param camera           The camera the walkers are drawn for.
+     * @param imageReader      Reads the avatar's animation frames, shared by the walkers.
+     * @param columnHeights    The surface heights the walkers stand on.
+     * @param fruitPickupGrid  The spatial index of the fruits in the world.
+     * @param fruitEater       Eats a fruit, returning false if it was already eaten.
+     * @param avatarCenter     Gets the avatar's center, around which the walkers are kept.
+     * @param seed             The seed of the walkers' random generator.
+     */
+    public Crowd(int size, Vector2 windowDimensions, Camera camera, ImageReader imageReader,
+                 ColumnHeightCache columnHeights, FruitPickupGrid fruitPickupGrid,
+                 BiPredicate<Tree, Fruit> fruitEater, Supplier<Vector2> avatarCenter, long seed) {
+        this(size, windowDimensions, camera, imageReader, columnHeights, fruitPickupGrid, fruitEater,
+                avatarCenter, seed, new BufferedImage((int) windowDimensions.x(), (int) windowDimensions.y(),
+                        BufferedImage.TYPE_INT_ARGB));
+    }
+
+    /**
+     * Constructor for the Crowd class, drawing into a given image.
+     *
+     * @param size             The number of walkers.
+     * @param windowDimensions The dimensions of the game window.
+     * @param camera           The camera the walkers are drawn for.
+     * @param imageReader      Reads the avatar's animation frames, shared by the walkers.
+     * @param columnHeights    The surface heights the walkers stand on.
+     * @param fruitPickupGrid  The spatial index of the fruits in the world.
+     * @param fruitEater       Eats a fruit, returning false if it was already eaten.
+     * @param avatarCenter     Gets the avatar's center, around which the walkers are kept.
+     * @param seed             The seed of the walkers' random generator.
+     * @param image            The image the walkers are drawn into.
+     */
+    private Crowd(int size, Vector2 windowDimensions, Camera camera, ImageReader imageReader,
+                  ColumnHeightCache columnHeights, FruitPickupGrid fruitPickupGrid,
+                  BiPredicate<Tree, Fruit> fruitEater, Supplier<Vector2> avatarCenter, long seed,
+                  BufferedImage image) {
+        super(Vector2.ZERO, windowDimensions, new ImageRenderable(image));
+        this.size = size;
+        this.camera = camera;
+        this.columnHeights = columnHeights;
+        this.fruitPickupGrid = fruitPickupGrid;
+        this.fruitEater = fruitEater;
+        this.avatarCenter = avatarCenter;
+        this.random = new Random(seed);
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        this.runFrames = loadFrames(imageReader, Avatar.RUN_IMAGES);
+        this.jumpFrames = loadFrames(imageReader, Avatar.JUMP_IMAGES);
+
+        x = new float[size];
+        y = new float[size];
+        velocityY = new float[size];
+        direction = new byte[size];
+        onGround = new boolean[size];
+        energy = new float[size];
+        animationOffset = new float[size];
+        for (int i = 0; i < size; i++) {
+            spawnNearAvatar(i);
+        }
+        setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        setTag(CROWD_TAG);
+    }
+
+    /**
+     * Gets the number of walkers.
+     *
+     * @return The walker count.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the simulation throughput, averaged over recent steps.
+     *
+     * @return The number of walkers simulated per millisecond.
+     */
+    public double getWalkersPerMillisecond() {
+        return walkersPerMillisecond;
+    }
+
+    /**
+     * Gets the number of fruits the walkers ate.
+     *
+     * @return The number of eaten fruits.
+     */
+    public int getFruitsEaten() {
+        return fruitsEaten;
+    }
+
+    /**
+     * Moves every walker after the world origin moved, so they keep their place in the world.
+     *
+     * @param shiftX The distance the origin moved by.
+     */
+    public void shiftOrigin(float shiftX) {
+        for (int i = 0; i < size; i++) {
+            x[i] -= shiftX;
+        }
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        time += deltaTime;
+        long start = System.nanoTime();
+        float avatarX = avatarCenter.get().x();
+        for (int i = 0; i < size; i++) {
+            if (Math.abs(x[i] - avatarX) > RECALL_DISTANCE) {
+                spawnNearAvatar(i);
+            }
+            think(i, deltaTime);
+            move(i, deltaTime);
+            eatFruit(i);
+        }
+        double millis = Math.max(System.nanoTime() - start, 1) / NANOS_PER_MILLI;
+        walkersPerMillisecond += (size / millis - walkersPerMillisecond) * THROUGHPUT_SMOOTHING;
+        moved = true;
+    }
+
+    /**
+     * Draws the walkers into the crowd's image, if they or the camera moved since the last draw.
+     * Called once per rendered frame, so frames running several simulation steps draw only once.
+     */
+    public void render() {
+        Vector2 viewCenter = camera.getCenter();
+        if (moved || viewCenter.x() != drawnViewX || viewCenter.y() != drawnViewY) {
+            draw();
+            moved = false;
+            drawnViewX = viewCenter.x();
+            drawnViewY = viewCenter.y();
+        }
+    }
+
+    /**
+     * Places a walker on the ground at a random distance from the avatar.
+     *
+     * @param i The walker.
+     */
+    private void spawnNearAvatar(int i) {
+        x[i] = avatarCenter.get().x() + (random.nextFloat() * 2 - 1) * SPAWN_DISTANCE;
+        y[i] = groundUnder(x[i]) - WALKER_SIZE;
+        velocityY[i] = 0;
+        direction[i] = (byte) (random.nextBoolean() ? 1 : -1);
+        onGround[i] = true;
+        energy[i] = FULL_ENERGY;
+        animationOffset[i] = random.nextFloat();
+    }
+
+    /**
+     * Decides where a walker goes: turning around now and then, jumping over ledges
+     * it can clear and turning back from walls it cannot, and resting when tired.
+     *
+     * @param i         The walker.
+     * @param deltaTime The time that passed since the last step.
+     */
+    private void think(int i, float deltaTime) {
+        if (!onGround[i]) {
+            return;
+        }
+        if (energy[i] < WALK_ENERGY * deltaTime) {
+            energy[i] = Math.min(FULL_ENERGY, energy[i] + REST_ENERGY * deltaTime);
+            return;
+        }
+        if (random.nextFloat() < TURN_CHANCE * deltaTime) {
+            direction[i] = (byte) -direction[i];
+        }
+        float feet = y[i] + WALKER_SIZE;
+        float ledge = feet - columnHeights.surfaceAt(leadingEdge(i) + direction[i] * Block.SIZE / 2f);
+        boolean wantsJump = ledge > STEP_HEIGHT || random.nextFloat() < JUMP_CHANCE * deltaTime;
+        if (ledge > Avatar.JUMP_HEIGHT || (ledge > STEP_HEIGHT && energy[i] < JUMP_ENERGY)) {
+            direction[i] = (byte) -direction[i];
+        } else if (wantsJump && energy[i] >= JUMP_ENERGY) {
+            energy[i] -= JUMP_ENERGY;
+            velocityY[i] = Avatar.VELOCITY_Y;
+            onGround[i] = false;
+        }
+    }
+
+    /**
+     * Moves a walker, stopping it at walls and landing it on the ground.
+     *
+     * @param i         The walker.
+     * @param deltaTime The time that passed since the last step.
+     */
+    private void move(int i, float deltaTime) {
+        boolean resting = onGround[i] && energy[i] < WALK_ENERGY * deltaTime;
+        if (!resting) {
+            float newX = x[i] + direction[i] * WALK_SPEED * deltaTime;
+            float feet = y[i] + WALKER_SIZE;
+            float edge = direction[i] > 0 ? newX + WALKER_SIZE : newX;
+            if (feet - columnHeights.surfaceAt(edge) > STEP_HEIGHT) {
+                direction[i] = (byte) -direction[i]; // Hit a wall
+            } else {
+                x[i] = newX;
+                if (onGround[i]) {
+                    energy[i] -= WALK_ENERGY * deltaTime;
+                }
+            }
+        }
+
+        velocityY[i] += Avatar.GRAVITY * deltaTime;
+        float newY = y[i] + velocityY[i] * deltaTime;
+        float ground = groundUnder(x[i]);
+        if (velocityY[i] >= 0 && newY + WALKER_SIZE >= ground) {
+            newY = ground - WALKER_SIZE;
+            velocityY[i] = 0;
+            onGround[i] = true;
+        } else {
+            onGround[i] = false;
+        }
+        y[i] = newY;
+    }
+
+    /**
+     * Lets a walker eat the fruits it touches, competing with the avatar and the other walkers.
+     *
+     * @param i The walker.
+     */
+    private void eatFruit(int i) {
+        fruitPickupGrid.collectOverlapping(x[i], y[i], x[i] + WALKER_SIZE, y[i] + WALKER_SIZE, pickups);
+        for (FruitPickupGrid.Pickup pickup : pickups) {
+            if (fruitEater.test(pickup.tree(), pickup.fruit())) {
+                energy[i] = Math.min(FULL_ENERGY, energy[i] + FRUIT_ENERGY);
+                fruitsEaten++;
+            }
+        }
+        pickups.clear();
+    }
+
+    /**
+     * Gets the x-coordinate of the side of a walker facing its direction.
+     *
+     * @param i The walker.
+     * @return The x-coordinate of the leading edge.
+     */
+    private float leadingEdge(int i) {
+        return direction[i] > 0 ? x[i] + WALKER_SIZE : x[i];
+    }
+
+    /**
+     * Gets the highest ground under a walker standing at an x-coordinate.
+     *
+     * @param left The left edge of the walker.
+     * @return The y-coordinate of the ground.
+     */
+    private float groundUnder(float left) {
+        return Math.min(columnHeights.surfaceAt(left), columnHeights.surfaceAt(left + WALKER_SIZE - 1));
+    }
+
+    /**
+     * Draws the walkers on screen into the crowd's image, using the shared frames.
+     */
+    private void draw() {
+        Arrays.fill(pixels, 0);
+        float viewMinX = camera.getCenter().x() - width / 2f;
+        float viewMinY = camera.getCenter().y() - height / 2f;
+        for (int i = 0; i < size; i++) {
+            int left = (int) (x[i] - viewMinX);
+            int top = (int) (y[i] - viewMinY);
+            if (left + WALKER_SIZE <= 0 || left >= width || top + WALKER_SIZE <= 0 || top >= height) {
+                continue;
+            }
+            int[][] frames = onGround[i] ? runFrames : jumpFrames;
+            int frame = (int) ((time / Avatar.ANIMATION_SPEED) + animationOffset[i] * frames.length)
+                    % frames.length;
+            blit(frames[frame], left, top, direction[i] < 0);
+        }
+    }
+
+    /**
+     * Copies the opaque pixels of a frame into the crowd's image.
+     *
+     * @param frame   The frame pixels, WALKER_SIZE by WALKER_SIZE.
+     * @param left    The left edge of the frame in the image.
+     * @param top     The top edge of the frame in the image.
+     * @param flipped True to mirror the frame horizontally.
+     */
+    private void blit(int[] frame, int left, int top, boolean flipped) {
+        for (int row = Math.max(0, -top); row < WALKER_SIZE && top + row < height; row++) {
+            int imageRow = (top + row) * width;
+            for (int column = Math.max(0, -left); column < WALKER_SIZE && left + column < width; column++) {
+                int argb = frame[row * WALKER_SIZE + (flipped ? WALKER_SIZE - 1 - column : column)];
+                if (argb >>> 24 != 0) {
+                    pixels[imageRow + left + column] = argb;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads animation frames and scales them down to the walker size, once for all walkers.
+     *
+     * @param imageReader Reads the images.
+     * @param paths       The paths of the frames.
+     * @return The pixels of every frame.
+     */
+    private static int[][] loadFrames(ImageReader imageReader, String[] paths) {
+        int[][] frames = new int[paths.length][];
+        for (int i = 0; i < paths.length; i++) {
+            Image image = imageReader.readImage(paths[i], true).getImage();
+            BufferedImage scaled = new BufferedImage(WALKER_SIZE, WALKER_SIZE, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = scaled.createGraphics();
+            graphics.drawImage(image, 0, 0, WALKER_SIZE, WALKER_SIZE, null);
+            graphics.dispose();
+            frames[i] = scaled.getRGB(0, 0, WALKER_SIZE, WALKER_SIZE, null, 0, WALKER_SIZE);
+        }
+        return frames;
+    }
+}
@@ -0,0 +1,244 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.util.Vector2;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * A minimap of the explored world around the avatar: the terrain profile, the trees
+ * and the eaten fruits. Every pixel column of the map is one terrain column.
+ * The map is kept in a small backing image that is only redrawn for columns that
+ * were generated or changed; when the avatar moves the image is shifted sideways
+ * and only the columns that came into view are drawn.
+ * Columns are absolute, so the map is unaffected when the world origin moves.
+ */
+public class Minimap extends GameObject {
+    private static final int MAP_COLUMNS = 256;
+    private static final int MAP_ROWS = 64;
+    private static final int PIXEL_SCALE = 2; // Screen pixels per map pixel
+    private static final float WORLD_UNITS_PER_ROW = 8; // World pixels per map row
+    private static final int MEMORY_COLUMNS = 8192; // Explored columns remembered, a power of two
+    private static final int MEMORY_MASK = MEMORY_COLUMNS - 1;
+    private static final Vector2 MARGIN = Vector2.of(20, 20);
+    private static final int BACKGROUND_COLOR = 0x60000000;
+    private static final int GROUND_COLOR = 0xFFB07A4A;
+    private static final int TREE_COLOR = 0xFF2E7D32;
+    private static final int EATEN_FRUIT_COLOR = 0xFF9E9E9E;
+    private static final int AVATAR_COLOR = 0xFFFFEB3B;
+    private static final int UNKNOWN_COLUMN = Integer.MIN_VALUE;
+    private static final short NO_ROW = Short.MIN_VALUE; // No tree or eaten fruit in the column
+    private static final int AVATAR_MAP_COLUMN = MAP_COLUMNS / 2;
+    private static final String MINIMAP_TAG = "minimap";
+
+    private final Supplier<Vector2> avatarCenter;
+    private final WorldOrigin origin;
+    private final float topWorldY;
+    private final int[] pixels;
+
+    // What is known of every remembered column, indexed by column modulo the memory size
+    private final int[] knownColumns = new int[MEMORY_COLUMNS];
+    private final short[] surfaceRows = new short[MEMORY_COLUMNS];
+    private final short[] treeTopRows = new short[MEMORY_COLUMNS];
+    private final short[] eatenFruitRows = new short[MEMORY_COLUMNS];
+
+    private int firstColumn;
+
+    /**
+     * Constructor for the Minimap class.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param avatarCenter     Gets the avatar's center, which the map is centered on.
+     * @param origin           The world origin the avatar and flora are positioned relative to.
+     * @param referenceY       The world y-coordinate shown in the middle of the map's height.
+     */
+    public Minimap(Vector2 windowDimensions, Supplier<Vector2> avatarCenter, WorldOrigin origin,
+                   float referenceY) {
+        this(windowDimensions, avatarCenter, origin, referenceY,
+                new BufferedImage(MAP_COLUMNS, MAP_ROWS, BufferedImage.TYPE_INT_ARGB));
+    }
+
+    /**
+     * Constructor for the Minimap class, drawing into a given backing image.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param avatarCenter     Gets the avatar's center, which the map is centered on.
+     * @param origin           The world origin the avatar and flora are positioned relative to.
+     * @param referenceY       The world y-coordinate shown in the middle of the map's height.
+     * @param image            The backing image of the map.
+     */
+    private Minimap(Vector2 windowDimensions, Supplier<Vector2> avatarCenter, WorldOrigin origin,
+                    float referenceY, BufferedImage image) {
+        super(Vector2.of(windowDimensions.x() - MAP_COLUMNS * PIXEL_SCALE - MARGIN.x(), MARGIN.y()),
+                Vector2.of(MAP_COLUMNS, MAP_ROWS).mult(PIXEL_SCALE), new ImageRenderable(image));
+        this.avatarCenter = avatarCenter;
+        this.origin = origin;
+        this.topWorldY = referenceY - MAP_ROWS / 2f * WORLD_UNITS_PER_ROW;
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        Arrays.fill(knownColumns, UNKNOWN_COLUMN);
+        this.firstColumn = columnAt(avatarCenter.get().x()) - AVATAR_MAP_COLUMN;
+        for (int mapColumn = 0; mapColumn < MAP_COLUMNS; mapColumn++) {
+            drawColumn(mapColumn);
+        }
+        setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        setTag(MINIMAP_TAG);
+    }
+
+    /**
+     * Records the surface of a terrain column that was generated or edited.
+     *
+     * @param column   The terrain column, in blocks.
+     * @param surfaceY The y-coordinate of the column's surface.
+     */
+    public void updateColumn(int column, float surfaceY) {
+        int slot = column & MEMORY_MASK;
+        if (knownColumns[slot] != column) {
+            knownColumns[slot] = column;
+            treeTopRows[slot] = NO_ROW;
+            eatenFruitRows[slot] = NO_ROW;
+        }
+        surfaceRows[slot] = (short) rowAt(surfaceY);
+        redrawIfShown(column);
+    }
+
+    /**
+     * Records a tree.
+     *
+     * @param x    The x-coordinate of the tree.
+     * @param topY The y-coordinate of the top of the tree.
+     */
+    public void markTree(float x, float topY) {
+        int column = columnAt(x);
+        int slot = column & MEMORY_MASK;
+        if (knownColumns[slot] == column) {
+            treeTopRows[slot] = (short) rowAt(topY);
+            redrawIfShown(column);
+        }
+    }
+
+    /**
+     * Records a fruit being eaten or growing back.
+     *
+     * @param x     The x-coordinate of the fruit.
+     * @param y     The y-coordinate of the fruit.
+     * @param eaten True if the fruit was eaten, false if it grew back.
+     */
+    public void markFruit(float x, float y, boolean eaten) {
+        int column = columnAt(x);
+        int slot = column & MEMORY_MASK;
+        if (knownColumns[slot] == column) {
+            eatenFruitRows[slot] = eaten ? (short) rowAt(y) : NO_ROW;
+            redrawIfShown(column);
+        }
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        Vector2 center = avatarCenter.get();
+        drawColumn(AVATAR_MAP_COLUMN); // Erase the avatar marker before shifting
+        scrollTo(columnAt(center.x()) - AVATAR_MAP_COLUMN);
+        int avatarRow = rowAt(center.y());
+        if (avatarRow >= 0 && avatarRow < MAP_ROWS) {
+            pixels[avatarRow * MAP_COLUMNS + AVATAR_MAP_COLUMN] = AVATAR_COLOR;
+        }
+    }
+
+    /**
+     * Scrolls the map so it starts at a column, shifting the backing image and drawing
+     * only the columns that came into view.
+     *
+     * @param newFirstColumn The terrain column to show at the left edge of the map.
+     */
+    private void scrollTo(int newFirstColumn) {
+        int shift = newFirstColumn - firstColumn;
+        if (shift == 0) {
+            return;
+        }
+        firstColumn = newFirstColumn;
+        if (Math.abs(shift) >= MAP_COLUMNS) {
+            for (int mapColumn = 0; mapColumn < MAP_COLUMNS; mapColumn++) {
+                drawColumn(mapColumn);
+            }
+            return;
+        }
+        int kept = MAP_COLUMNS - Math.abs(shift);
+        for (int row = 0; row < MAP_ROWS; row++) {
+            int rowStart = row * MAP_COLUMNS;
+            if (shift > 0) {
+                System.arraycopy(pixels, rowStart + shift, pixels, rowStart, kept);
+            } else {
+                System.arraycopy(pixels, rowStart, pixels, rowStart - shift, kept);
+            }
+        }
+        int firstNew = shift > 0 ? kept : 0;
+        for (int mapColumn = firstNew; mapColumn < firstNew + Math.abs(shift); mapColumn++) {
+            drawColumn(mapColumn);
+        }
+    }
+
+    /**
+     * Redraws a terrain column if it is currently shown on the map.
+     *
+     * @param column The terrain column, in blocks.
+     */
+    private void redrawIfShown(int column) {
+        int mapColumn = column - firstColumn;
+        if (mapColumn >= 0 && mapColumn < MAP_COLUMNS) {
+            drawColumn(mapColumn);
+        }
+    }
+
+    /**
+     * Draws one pixel column of the map from what is known of its terrain column.
+     *
+     * @param mapColumn The pixel column of the map.
+     */
+    private void drawColumn(int mapColumn) {
+        int column = firstColumn + mapColumn;
+        int slot = column & MEMORY_MASK;
+        boolean known = knownColumns[slot] == column;
+        int surfaceRow = known ? surfaceRows[slot] : MAP_ROWS;
+        int treeTopRow = known ? treeTopRows[slot] : NO_ROW;
+        int eatenFruitRow = known ? eatenFruitRows[slot] : NO_ROW;
+
+        for (int row = 0; row < MAP_ROWS; row++) {
+            int color = BACKGROUND_COLOR;
+            if (row >= surfaceRow) {
+                color = GROUND_COLOR;
+            } else if (treeTopRow != NO_ROW && row >= treeTopRow) {
+                color = TREE_COLOR;
+            }
+            if (row == eatenFruitRow) {
+                color = EATEN_FRUIT_COLOR;
+            }
+            pixels[row * MAP_COLUMNS + mapColumn] = color;
+        }
+    }
+
+    /**
+     * Finds the terrain column containing an x-coordinate.
+     *
+     * @param x The x-coordinate, relative to the world origin.
+     * @return The absolute column, in blocks.
+     */
+    private int columnAt(float x) {
+        return origin.cellAt(x, Block.SIZE);
+    }
+
+    /**
+     * Finds the map row showing a y-coordinate, clamped to just outside the map.
+     *
+     * @param y The y-coordinate.
+     * @return The map row, in [-1, MAP_ROWS].
+     */
+    private int rowAt(float y) {
+        int row = (int) Math.floor((y - topWorldY) / WORLD_UNITS_PER_ROW);
+        return Math.max(-1, Math.min(MAP_ROWS, row));
+    }
+}
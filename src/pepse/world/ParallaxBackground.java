@@ -0,0 +1,205 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.gui.rendering.Camera;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.util.Vector2;
+import pepse.LayerManager;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates the parallax bands drawn between the sky and the terrain: clouds and two
+ * ranges of hills, scrolled at a fraction of the camera's speed.
+ * Each band is drawn from a few tile images generated once per seed. A band is shown
+ * by just enough tile objects to cover the window, which move along as the camera
+ * moves and pick their next image as they wrap around, so the cost stays the same
+ * however far the avatar travels.
+ */
+public class ParallaxBackground {
+    private static final String PARALLAX_TAG = "parallax";
+    private static final int TILE_WIDTH = 512;
+    private static final int TILE_VARIANTS = 3; // Images per band, mixed along the band
+    private static final int HILL_HARMONICS = 4; // Sine waves summed into a hill profile
+    private static final int MIN_CLOUDS = 2;
+    private static final int MAX_CLOUDS = 5;
+    private static final Color CLOUD_COLOR = new Color(255, 255, 255, 200);
+    // Tile images are shared by every game using the same seed
+    private static final Map<String, ImageRenderable[]> TILE_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * The parallax bands, from the farthest to the nearest.
+     */
+    public enum Band {
+        CLOUDS(LayerManager.GameLayer.PARALLAX_CLOUDS, 0.1f, 0.05f, 0.25f, CLOUD_COLOR),
+        FAR_HILLS(LayerManager.GameLayer.PARALLAX_FAR, 0.25f, 0.35f, 0.4f, new Color(140, 160, 190)),
+        NEAR_HILLS(LayerManager.GameLayer.PARALLAX_NEAR, 0.5f, 0.45f, 0.35f, new Color(95, 130, 110));
+
+        private final LayerManager.GameLayer gameLayer;
+        private final float scrollFactor;
+        private final float topRatio;
+        private final float heightRatio;
+        private final Color color;
+
+        /**
+         * Constructor for the Band enum.
+         *
+         * @param gameLayer    The layer the band is drawn in.
+         * @param scrollFactor The band's speed, as a fraction of the camera's speed.
+         * @param topRatio     The top of the band, as a fraction of the window height.
+         * @param heightRatio  The height of the band, as a fraction of the window height.
+         * @param color        The colour of the band.
+         */
+        Band(LayerManager.GameLayer gameLayer, float scrollFactor, float topRatio, float heightRatio,
+             Color color) {
+            this.gameLayer = gameLayer;
+            this.scrollFactor = scrollFactor;
+            this.topRatio = topRatio;
+            this.heightRatio = heightRatio;
+            this.color = color;
+        }
+
+        /**
+         * Gets the layer the band is drawn in.
+         *
+         * @return The game layer.
+         */
+        public LayerManager.GameLayer getGameLayer() {
+            return gameLayer;
+        }
+    }
+
+    /**
+     * Creates the tile objects of a band.
+     *
+     * @param band             The band to create.
+     * @param windowDimensions The dimensions of the game window.
+     * @param camera           The camera the band scrolls with.
+     * @param origin           The world origin the camera is positioned relative to.
+     * @param seed             The world seed.
+     * @return The tile objects, to be added to the band's layer.
+     */
+    public static List<GameObject> create(Band band, Vector2 windowDimensions, Camera camera,
+                                          WorldOrigin origin, int seed) {
+        int tileHeight = Math.round(windowDimensions.y() * band.heightRatio);
+        float tileTop = windowDimensions.y() * band.topRatio;
+        ImageRenderable[] variants = TILE_CACHE.computeIfAbsent(band + "/" + seed + "/" + tileHeight,
+                key -> createVariants(band, tileHeight, seed));
+        int slots = (int) Math.ceil(windowDimensions.x() / TILE_WIDTH) + 1;
+        List<GameObject> tiles = new ArrayList<>(slots);
+
+        for (int slot = 0; slot < slots; slot++) {
+            GameObject tile = new GameObject(Vector2.ZERO, Vector2.of(TILE_WIDTH, tileHeight), variants[0]);
+            tile.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+            tile.setTag(PARALLAX_TAG);
+            int tileSlot = slot;
+            int[] shownIndex = {Integer.MIN_VALUE};
+
+            // Component to keep the tile in its slot and show the image of the band tile there
+            tile.addComponent(deltaTime -> {
+                // Scrolled by the absolute camera position, so moving the origin does not jolt the band
+                double scroll = (origin.toAbsoluteX(camera.getCenter().x()) - windowDimensions.x() / 2)
+                        * band.scrollFactor;
+                int index = (int) Math.floor(scroll / TILE_WIDTH) + tileSlot;
+                tile.setTopLeftCorner(Vector2.of((float) ((double) index * TILE_WIDTH - scroll), tileTop));
+                if (index != shownIndex[0]) {
+                    shownIndex[0] = index;
+                    tile.renderer().setRenderable(variants[variantOf(index, seed)]);
+                }
+            });
+            tiles.add(tile);
+        }
+        return tiles;
+    }
+
+    /**
+     * Chooses the image of a band tile, so the images do not repeat in a visible pattern.
+     *
+     * @param index The index of the tile along the band.
+     * @param seed  The world seed.
+     * @return The index of the tile's image.
+     */
+    private static int variantOf(int index, int seed) {
+        return Math.floorMod(Objects.hash(index, seed), TILE_VARIANTS);
+    }
+
+    /**
+     * Draws the tile images of a band.
+     *
+     * @param band       The band.
+     * @param tileHeight The height of a tile.
+     * @param seed       The world seed.
+     * @return The tile images.
+     */
+    private static ImageRenderable[] createVariants(Band band, int tileHeight, int seed) {
+        ImageRenderable[] variants = new ImageRenderable[TILE_VARIANTS];
+        for (int i = 0; i < TILE_VARIANTS; i++) {
+            Random random = new Random(Objects.hash(seed, band.ordinal(), i));
+            BufferedImage image = new BufferedImage(TILE_WIDTH, tileHeight, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = image.createGraphics();
+            graphics.setColor(band.color);
+            if (band == Band.CLOUDS) {
+                drawClouds(graphics, tileHeight, random);
+            } else {
+                drawHills(graphics, tileHeight, random);
+            }
+            graphics.dispose();
+            variants[i] = new ImageRenderable(image);
+        }
+        return variants;
+    }
+
+    /**
+     * Draws a hill silhouette from a sum of sine waves. Every wave fits the tile width a
+     * whole number of times and the profile starts and ends at mid height, so any two
+     * tiles join without a seam.
+     *
+     * @param graphics   The graphics of the tile image.
+     * @param tileHeight The height of the tile.
+     * @param random     The random generator to draw the hills from.
+     */
+    private static void drawHills(Graphics2D graphics, int tileHeight, Random random) {
+        double[] amplitudes = new double[HILL_HARMONICS];
+        double[] phases = new double[HILL_HARMONICS];
+        for (int k = 0; k < HILL_HARMONICS; k++) {
+            amplitudes[k] = tileHeight * 0.25 / (k + 1) * random.nextDouble(0.5, 1);
+            phases[k] = random.nextDouble(0, 2 * Math.PI);
+        }
+        for (int x = 0; x < TILE_WIDTH; x++) {
+            double height = tileHeight / 2.0;
+            for (int k = 0; k < HILL_HARMONICS; k++) {
+                height += amplitudes[k] * (Math.sin(2 * Math.PI * (k + 1) * x / TILE_WIDTH + phases[k])
+                        - Math.sin(phases[k]));
+            }
+            int top = (int) Math.max(0, Math.min(tileHeight, tileHeight - height));
+            graphics.drawLine(x, top, x, tileHeight);
+        }
+    }
+
+    /**
+     * Draws a few clouds, kept clear of the tile edges so tiles join without a seam.
+     *
+     * @param graphics   The graphics of the tile image.
+     * @param tileHeight The height of the tile.
+     * @param random     The random generator to draw the clouds from.
+     */
+    private static void drawClouds(Graphics2D graphics, int tileHeight, Random random) {
+        int clouds = random.nextInt(MIN_CLOUDS, MAX_CLOUDS + 1);
+        for (int i = 0; i < clouds; i++) {
+            int width = random.nextInt(TILE_WIDTH / 8, TILE_WIDTH / 3);
+            int height = Math.max(1, Math.min(tileHeight, width / 3));
+            int x = random.nextInt(0, TILE_WIDTH - width);
+            int y = random.nextInt(0, Math.max(1, tileHeight - height));
+            graphics.fillOval(x, y, width, height);
+            graphics.fillOval(x + width / 4, y - height / 3, width / 2, height);
+        }
+    }
+}
@@ -2,30 +2,139 @@ package pepse.world;
 
 import danogl.GameObject;
 import danogl.components.CoordinateSpace;
-import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
+import pepse.world.daynight.WorldClock;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
 
 /**
  * The Sky class is responsible for creating the sky background in the game world.
+ * The sky is a vertical gradient that changes colour across the day-night cycle.
+ * All the gradients are drawn once, into a lookup table indexed by the clock phase,
+ * so each frame only picks an entry and swaps the renderable.
+ * The night darkness drawn over the whole view darkens the sky too, so the gradients
+ * are brightened by as much, and the sky shows its key colours once darkened.
  */
 public class Sky {
     private static final Color BASIC_SKY_COLOR = Color.decode("#80C6E5");
     private static final String SKY_TAG = "sky";
+    private static final int LUT_SIZE = 96; // Number of precomputed gradients per cycle
+    private static final int GRADIENT_HEIGHT = 256; // Stretched to the window height when drawn
+    private static final int MAX_CHANNEL = 255;
+
+    // Key times of the cycle (0 is noon, 0.5 is midnight) with the sky colour at the top and horizon
+    private static final float[] KEY_PHASES = {0f, 0.2f, 0.3f, 0.4f, 0.6f, 0.7f, 0.8f, 1f};
+    private static final Color[] KEY_TOP_COLORS = {
+            Color.decode("#4F9FD8"), Color.decode("#4F9FD8"), Color.decode("#3A4A7A"),
+            Color.decode("#0B1026"), Color.decode("#0B1026"), Color.decode("#4A5A8C"),
+            Color.decode("#4F9FD8"), Color.decode("#4F9FD8")};
+    private static final Color[] KEY_HORIZON_COLORS = {
+            BASIC_SKY_COLOR, BASIC_SKY_COLOR, Color.decode("#F28C4A"),
+            Color.decode("#1B2240"), Color.decode("#1B2240"), Color.decode("#F5B27A"),
+            BASIC_SKY_COLOR, BASIC_SKY_COLOR};
 
     /**
      * Creates the sky GameObject.
      *
      * @param windowDimensions The dimensions of the game window.
+     * @param clock            The clock owning the time of day.
      * @return The sky GameObject.
      */
-    public static GameObject create(Vector2 windowDimensions) {
+    public static GameObject create(Vector2 windowDimensions, WorldClock clock) {
+        Renderable[] gradients = createGradients();
         GameObject sky = new GameObject(
                 Vector2.ZERO, windowDimensions,
-                new RectangleRenderable(BASIC_SKY_COLOR));
+                gradients[gradientIndex(clock)]);
         sky.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
         sky.setTag(SKY_TAG);
+
+        // Component to show the gradient of the current time of day
+        sky.addComponent(deltaTime -> {
+            Renderable gradient = gradients[gradientIndex(clock)];
+            if (sky.renderer().getRenderable() != gradient) {
+                sky.renderer().setRenderable(gradient);
+            }
+        });
+
         return sky;
     }
+
+    /**
+     * Finds the lookup table entry for the current time of day.
+     *
+     * @param clock The clock owning the time of day.
+     * @return The index of the gradient to show.
+     */
+    private static int gradientIndex(WorldClock clock) {
+        return Math.min((int) (clock.getPhase() * LUT_SIZE), LUT_SIZE - 1);
+    }
+
+    /**
+     * Draws the gradients of the whole cycle.
+     *
+     * @return The lookup table of gradients, one per slice of the cycle.
+     */
+    private static Renderable[] createGradients() {
+        Renderable[] gradients = new Renderable[LUT_SIZE];
+        for (int i = 0; i < LUT_SIZE; i++) {
+            float phase = (float) i / LUT_SIZE;
+            int key = 0;
+            while (KEY_PHASES[key + 1] < phase) {
+                key++;
+            }
+            float t = (phase - KEY_PHASES[key]) / (KEY_PHASES[key + 1] - KEY_PHASES[key]);
+            Color top = blend(KEY_TOP_COLORS[key], KEY_TOP_COLORS[key + 1], t);
+            Color horizon = blend(KEY_HORIZON_COLORS[key], KEY_HORIZON_COLORS[key + 1], t);
+            float light = 1 - WorldClock.nightOpacityAt(phase);
+            gradients[i] = createGradient(brighten(top, light), brighten(horizon, light));
+        }
+        return gradients;
+    }
+
+    /**
+     * Draws a single vertical gradient.
+     *
+     * @param top     The colour at the top of the sky.
+     * @param horizon The colour at the bottom of the sky.
+     * @return The gradient renderable.
+     */
+    private static Renderable createGradient(Color top, Color horizon) {
+        BufferedImage image = new BufferedImage(1, GRADIENT_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < GRADIENT_HEIGHT; y++) {
+            image.setRGB(0, y, blend(top, horizon, (float) y / (GRADIENT_HEIGHT - 1)).getRGB());
+        }
+        return new ImageRenderable(image);
+    }
+
+    /**
+     * Undoes the darkening of a colour by the night darkness.
+     *
+     * @param color The colour wanted once darkened.
+     * @param light The fraction of the colour the darkness lets through, in (0, 1].
+     * @return The colour to draw.
+     */
+    private static Color brighten(Color color, float light) {
+        return new Color(
+                Math.min(Math.round(color.getRed() / light), MAX_CHANNEL),
+                Math.min(Math.round(color.getGreen() / light), MAX_CHANNEL),
+                Math.min(Math.round(color.getBlue() / light), MAX_CHANNEL));
+    }
+
+    /**
+     * Linearly blends two colours.
+     *
+     * @param from The colour at t = 0.
+     * @param to   The colour at t = 1.
+     * @param t    The blend factor, in [0, 1].
+     * @return The blended colour.
+     */
+    private static Color blend(Color from, Color to, float t) {
+        return new Color(
+                Math.round(from.getRed() + (to.getRed() - from.getRed()) * t),
+                Math.round(from.getGreen() + (to.getGreen() - from.getGreen()) * t),
+                Math.round(from.getBlue() + (to.getBlue() - from.getBlue()) * t));
+    }
 }
@@ -7,43 +7,252 @@ import pepse.util.ColorSupplier;
 import pepse.util.NoiseGenerator;
 
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
 
 /**
  * The Terrain class is responsible for generating and
  * managing the terrain within the game world.
+ * The generated terrain can be edited block by block; the edits are kept
+ * apart from the generated blocks and applied whenever a range is created.
+ * Ranges and heights are given in absolute coordinates, while the blocks are
+ * positioned relative to the world origin.
+ * Caves are carved out below the surface by a cave field. Only the solid cells near
+ * the surface, or near the focus that follows the avatar, are created as blocks.
+ * The colour of every cell is drawn from a generator seeded by the cell, so the same
+ * seed always generates the same terrain, colours included.
  */
 public class Terrain {
     private float groundHeightAtX0;
-    private static final Color BASE_GROUND_COLOR = new Color(212, 123, 74);
     private static final int TERRAIN_DEPTH = 24; // The depth of the terrain in blocks
     private static final String GROUND_TAG = "ground"; // Tag for ground blocks
     private static final float GROUND_HEIGHT_RATIO = 2.0f / 3.0f; // Ratio to calculate initial ground height
     private static final int NOISE_SCALE_FACTOR = 7; // Scale factor for noise generation
-    private static int seed;
+    private static final int SURFACE_ROWS = 10; // Rows under the surface always created as blocks
+    public static final int FOCUS_COLUMNS = 24; // Columns around the focus created as blocks at any depth
+    private static final int FOCUS_ROWS = 14; // Rows around the focus created as blocks at any depth
+    private static final int FOCUS_STEP = 4; // Cells the focus moves by, so it does not move every step
+    private static final int NO_FOCUS = Integer.MIN_VALUE / 2;
+    private final int seed;
+    private final NoiseGenerator noiseGenerator;
+    private final TerrainEdits edits = new TerrainEdits();
+    private final BiomeField biomeField;
+    private final WorldOrigin origin;
+    private final CaveField caveField;
+    private int focusColumn = NO_FOCUS;
+    private int focusRow = NO_FOCUS;
 
     /**
-     * Constructor for the Terrain class.
+     * The result of rebuilding the blocks of a range after edits.
+     *
+     * @param blocks  All the blocks of the range.
+     * @param added   The blocks that were created.
+     * @param removed The old blocks that are no longer part of the range.
+     */
+    public record Rebuild(List<Block> blocks, List<Block> added, List<Block> removed) {
+    }
+
+    /**
+     * Receives a solid cell of the terrain, without a block being created for it.
+     */
+    @FunctionalInterface
+    public interface CellVisitor {
+        /**
+         * Visits a cell.
+         *
+         * @param cellX The column of the cell, in blocks.
+         * @param cellY The row of the cell, in blocks.
+         */
+        void visit(int cellX, int cellY);
+    }
+
+    /**
+     * Constructor for the Terrain class, with a fixed origin.
      *
      * @param windowDimensions The dimensions of the game window.
      * @param seed The seed for noise generation to ensure consistent terrain.
      */
     public Terrain(Vector2 windowDimensions, int seed) {
+        this(windowDimensions, seed, new WorldOrigin());
+    }
+
+    /**
+     * Constructor for the Terrain class.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param seed The seed for noise generation to ensure consistent terrain.
+     * @param origin The world origin the blocks are positioned relative to.
+     */
+    public Terrain(Vector2 windowDimensions, int seed, WorldOrigin origin) {
+        this.origin = origin;
         this.groundHeightAtX0 = windowDimensions.y() * GROUND_HEIGHT_RATIO;
-        Terrain.seed = seed;
+        this.seed = seed;
+        this.noiseGenerator = new NoiseGenerator(seed, (int) groundHeightAtX0);
+        this.biomeField = new BiomeField(seed);
+        this.caveField = new CaveField(seed, this::topRowOf, TERRAIN_DEPTH);
     }
 
     /**
      * Returns the ground height at a given x-coordinate.
+     * The height noise is scaled by the amplitude of the local biome.
      *
-     * @param x The x-coordinate.
+     * @param x The absolute x-coordinate.
      * @return The ground height at the specified x-coordinate.
      */
-    public float groundHeightAt(float x) {
-        NoiseGenerator noiseGenerator = new NoiseGenerator(seed, (int) groundHeightAtX0);
+    public float groundHeightAt(double x) {
         float noise = (float) noiseGenerator.noise(x, Block.SIZE * NOISE_SCALE_FACTOR);
-        return groundHeightAtX0 + noise;
+        return groundHeightAtX0 + noise * biomeField.amplitudeAt(x);
+    }
+
+    /**
+     * Returns the top of the terrain blocks in the column containing an x-coordinate.
+     *
+     * @param x The absolute x-coordinate.
+     * @return The y-coordinate of the top of the column's highest block.
+     */
+    public float blockTopAt(double x) {
+        int columnX = BlockUtil.getNearestBlockLocation((int) Math.floor(x));
+        return (float) (Math.floor(groundHeightAt(columnX) / Block.SIZE) * Block.SIZE);
+    }
+
+    /**
+     * Returns the top of the highest block in a column, taking the edits into account.
+     *
+     * @param cellX The column, in blocks.
+     * @return The y-coordinate of the top of the column's highest block, or of the
+     * bottom of the terrain if every block of the column was removed.
+     */
+    public float surfaceTopAt(int cellX) {
+        int generatedTop = topRowOf(cellX);
+        int[] highest = {generatedTop};
+        edits.forEachPlaced(TerrainEdits.chunkIndexOf(cellX), (placedX, placedY) -> {
+            if (placedX == cellX && placedY < highest[0]) {
+                highest[0] = placedY;
+            }
+        });
+        int cellY = highest[0];
+        while (cellY < generatedTop + TERRAIN_DEPTH && !hasBlockAt(cellX, cellY)) {
+            cellY++;
+        }
+        return cellY * Block.SIZE;
+    }
+
+    /**
+     * Removes the block in a cell, or places one there.
+     *
+     * @param cellX The column of the cell, in blocks.
+     * @param cellY The row of the cell, in blocks.
+     * @param solid True to place a block, false to remove it.
+     * @return True if the cell changed.
+     */
+    public boolean setBlockAt(int cellX, int cellY, boolean solid) {
+        return edits.set(cellX, cellY, solid, isGeneratedBlock(cellX, cellY));
+    }
+
+    /**
+     * Checks whether a cell holds a block, taking the edits into account.
+     *
+     * @param cellX The column of the cell, in blocks.
+     * @param cellY The row of the cell, in blocks.
+     * @return True if the cell holds a block.
+     */
+    public boolean hasBlockAt(int cellX, int cellY) {
+        Boolean edited = edits.get(cellX, cellY);
+        return edited != null ? edited : isGeneratedBlock(cellX, cellY);
+    }
+
+    /**
+     * Gets the seed the terrain is generated from.
+     *
+     * @return The world seed.
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    /**
+     * Moves the focus around which solid cells are created as blocks at any depth.
+     * The focus moves in steps of a few cells; the chunks around the old and new focus
+     * must be rebuilt when it moves. Above the generated surface, where the surface rows
+     * already show everything in reach, there is no focus, so running and jumping on
+     * the surface never moves it.
+     *
+     * @param cellX The column to focus on, in blocks.
+     * @param cellY The row to focus on, in blocks.
+     * @return True if the focus moved.
+     */
+    public boolean setFocus(int cellX, int cellY) {
+        int column = NO_FOCUS;
+        int row = NO_FOCUS;
+        if (cellY > topRowOf(cellX)) {
+            column = Math.floorDiv(cellX, FOCUS_STEP) * FOCUS_STEP;
+            row = Math.floorDiv(cellY, FOCUS_STEP) * FOCUS_STEP;
+        }
+        if (column == focusColumn && row == focusRow) {
+            return false;
+        }
+        focusColumn = column;
+        focusRow = row;
+        return true;
+    }
+
+    /**
+     * Gets the column of the focus around which solid cells are created at any depth.
+     *
+     * @return The focus column, in blocks, or a column far outside the world if there is no focus.
+     */
+    public int getFocusColumn() {
+        return focusColumn;
+    }
+
+    /**
+     * Checks whether there is a focus, which is only the case while it is below the surface.
+     *
+     * @return True if there is a focus.
+     */
+    public boolean hasFocus() {
+        return focusColumn != NO_FOCUS;
+    }
+
+    /**
+     * Gets the cave field carving the terrain.
+     *
+     * @return The cave field.
+     */
+    public CaveField getCaveField() {
+        return caveField;
+    }
+
+    /**
+     * Gets the world origin the blocks are positioned relative to.
+     *
+     * @return The world origin.
+     */
+    public WorldOrigin getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Gets the biome field the terrain is shaped and coloured by.
+     *
+     * @return The biome field.
+     */
+    public BiomeField getBiomeField() {
+        return biomeField;
+    }
+
+    /**
+     * Gets the edits made to the terrain.
+     *
+     * @return The terrain edits.
+     */
+    public TerrainEdits getEdits() {
+        return edits;
     }
 
     /**
@@ -54,36 +263,173 @@ public class Terrain {
      * @return A list of blocks created within the specified range.
      */
     public List<Block> createInRange(int minX, int maxX) {
+        return buildRange(minX, maxX, null, null);
+    }
+
+    /**
+     * Rebuilds the blocks of a range after edits. Blocks of cells that did not
+     * change are kept, so only the edited cells are created or removed.
+     *
+     * @param minX      The minimum x-coordinate of the range.
+     * @param maxX      The maximum x-coordinate of the range.
+     * @param oldBlocks The current blocks of the range.
+     * @return The rebuilt blocks, with the blocks that were added and removed.
+     */
+    public Rebuild rebuildInRange(int minX, int maxX, List<Block> oldBlocks) {
+        Map<Long, Block> reusable = new HashMap<>();
+        for (Block block : oldBlocks) {
+            Vector2 topLeft = block.getTopLeftCorner();
+            reusable.put(cellKey((int) Math.round(origin.toAbsoluteX(topLeft.x()) / Block.SIZE),
+                    Math.round(topLeft.y() / Block.SIZE)), block);
+        }
+        List<Block> added = new ArrayList<>();
+        List<Block> blocks = buildRange(minX, maxX, reusable, added);
+        return new Rebuild(blocks, added, new ArrayList<>(reusable.values()));
+    }
+
+    /**
+     * Visits every solid cell of a range, applying the edits, without creating any block.
+     * Generated cells are visited column by column, top to bottom, then the placed blocks.
+     *
+     * @param minX    The minimum x-coordinate of the range.
+     * @param maxX    The maximum x-coordinate of the range.
+     * @param visitor Receives every solid cell.
+     */
+    public void forEachSolidCell(int minX, int maxX, CellVisitor visitor) {
+        forEachCell(minX, maxX, false, visitor);
+    }
+
+    /**
+     * Gets the colour of the block in a cell. The colour is the same every time it is asked for.
+     *
+     * @param cellX The column of the cell, in blocks.
+     * @param cellY The row of the cell, in blocks.
+     * @return The colour of the cell's block.
+     */
+    public Color blockColorAt(int cellX, int cellY) {
+        return ColorSupplier.approximateColor(biomeField.groundColorAt(cellX * Block.SIZE),
+                new Random(Objects.hash(seed, cellX, cellY)));
+    }
+
+    /**
+     * Builds the blocks of a range, applying the edits. Generated cells are created
+     * only if they are solid and near the surface or the focus; placed blocks always are.
+     *
+     * @param minX     The minimum x-coordinate of the range.
+     * @param maxX     The maximum x-coordinate of the range.
+     * @param reusable Existing blocks by cell, taken instead of creating new ones, or null.
+     * @param added    Receives the blocks that were created, or null.
+     * @return The blocks of the range.
+     */
+    private List<Block> buildRange(int minX, int maxX, Map<Long, Block> reusable, List<Block> added) {
+        List<Block> blocks = new LinkedList<>();
+        forEachCell(minX, maxX, true, (cellX, cellY) -> blocks.add(blockAt(cellX, cellY, reusable, added)));
+        return blocks;
+    }
+
+    /**
+     * Visits the solid cells of a range, applying the edits.
+     *
+     * @param minX      The minimum x-coordinate of the range.
+     * @param maxX      The maximum x-coordinate of the range.
+     * @param shownOnly Whether to skip the generated cells far from the surface and the focus.
+     * @param visitor   Receives the cells.
+     */
+    private void forEachCell(int minX, int maxX, boolean shownOnly, CellVisitor visitor) {
         int finalMinX = BlockUtil.getNearestBlockLocation(minX);
         int finalMaxX = BlockUtil.getNearestBlockLocation(maxX);
         int currentX = finalMinX;
-        List<Block> blocks = new LinkedList<>();
 
         while (currentX < finalMaxX) {
-            float y = (float) (Math.floor(groundHeightAt(currentX) / Block.SIZE) * Block.SIZE);
-            addBlocksAtX(currentX, y, blocks);
+            int cellX = currentX / Block.SIZE;
+            int topCell = topRowOf(cellX);
+            for (int cellY = topCell; cellY < topCell + TERRAIN_DEPTH; cellY++) {
+                if ((!shownOnly || isShown(cellX, cellY, topCell)) && edits.get(cellX, cellY) == null
+                        && !caveField.isCarved(cellX, cellY, topCell)) {
+                    visitor.visit(cellX, cellY);
+                }
+            }
             currentX += Block.SIZE;
         }
 
-        return blocks;
+        int firstCell = finalMinX / Block.SIZE;
+        int lastCell = finalMaxX / Block.SIZE;
+        for (int chunk = TerrainEdits.chunkIndexOf(firstCell);
+             chunk <= TerrainEdits.chunkIndexOf(lastCell - 1); chunk++) {
+            edits.forEachPlaced(chunk, (cellX, cellY) -> {
+                if (cellX >= firstCell && cellX < lastCell) {
+                    visitor.visit(cellX, cellY);
+                }
+            });
+        }
     }
 
     /**
-     * Adds blocks at a specified x-coordinate, starting from a given y-coordinate, and going downwards.
+     * Gets the block of a cell, reusing an existing one if possible.
      *
-     * @param currentX The x-coordinate.
-     * @param y The starting y-coordinate.
-     * @param blocks The list of blocks to which new blocks will be added.
+     * @param cellX    The column of the cell.
+     * @param cellY    The row of the cell.
+     * @param reusable Existing blocks by cell, or null.
+     * @param added    Receives the block if it was created, or null.
+     * @return The block.
      */
-    private static void addBlocksAtX(int currentX, float y, List<Block> blocks) {
-        for (int i = 0; i < TERRAIN_DEPTH; i++) {
-            Vector2 blockPosition = Vector2.of(currentX, y);
-            RectangleRenderable renderable =
-                    new RectangleRenderable(ColorSupplier.approximateColor(BASE_GROUND_COLOR));
-            Block block = new Block(blockPosition, renderable);
-            block.setTag(GROUND_TAG);
-            blocks.add(block);
-            y += Block.SIZE;
+    private Block blockAt(int cellX, int cellY, Map<Long, Block> reusable, List<Block> added) {
+        Block block = reusable == null ? null : reusable.remove(cellKey(cellX, cellY));
+        if (block != null) {
+            return block;
+        }
+        Vector2 blockPosition = Vector2.of(origin.toLocalX((double) cellX * Block.SIZE), cellY * Block.SIZE);
+        block = new Block(blockPosition, new RectangleRenderable(blockColorAt(cellX, cellY)));
+        block.setTag(GROUND_TAG);
+        if (added != null) {
+            added.add(block);
         }
+        return block;
+    }
+
+    /**
+     * Checks whether the generated terrain, before edits, has a block in a cell.
+     *
+     * @param cellX The column of the cell, in blocks.
+     * @param cellY The row of the cell, in blocks.
+     * @return True if the generated terrain has a block there.
+     */
+    private boolean isGeneratedBlock(int cellX, int cellY) {
+        int topCell = topRowOf(cellX);
+        return cellY >= topCell && cellY < topCell + TERRAIN_DEPTH && !caveField.isCarved(cellX, cellY, topCell);
+    }
+
+    /**
+     * Checks whether a cell is near enough to the surface or the focus to be created as a block.
+     *
+     * @param cellX   The column of the cell, in blocks.
+     * @param cellY   The row of the cell, in blocks.
+     * @param topCell The row of the top block of the column.
+     * @return True if the cell, when solid, is created as a block.
+     */
+    private boolean isShown(int cellX, int cellY, int topCell) {
+        return cellY < topCell + SURFACE_ROWS
+                || (Math.abs(cellX - focusColumn) <= FOCUS_COLUMNS && Math.abs(cellY - focusRow) <= FOCUS_ROWS);
+    }
+
+    /**
+     * Gets the row of the top block of a column, before edits.
+     *
+     * @param cellX The column, in blocks.
+     * @return The row, in blocks.
+     */
+    private int topRowOf(int cellX) {
+        return (int) (blockTopAt(cellX * Block.SIZE) / Block.SIZE);
+    }
+
+    /**
+     * Packs the two cell indices into a single key.
+     *
+     * @param cellX The column of the cell.
+     * @param cellY The row of the cell.
+     * @return The cell key.
+     */
+    private static long cellKey(int cellX, int cellY) {
+        return ((long) cellX << Integer.SIZE) | (cellY & 0xFFFFFFFFL);
     }
 }
@@ -0,0 +1,117 @@
+package pepse.world;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * The blocks the player removed from or placed in the terrain, grouped by chunk.
+ * Only cells that differ from the generated terrain are kept, so the edits survive
+ * a chunk being unloaded and generated again. The store is bounded: when too many
+ * chunks were edited, the edits of the least recently used chunk are dropped.
+ */
+public class TerrainEdits {
+    private static final int MAX_EDITED_CHUNKS = 512;
+    private static final int MAX_EDITS_PER_CHUNK = 1024;
+    private static final Map<Long, Boolean> NO_EDITS = Map.of();
+
+    // Per chunk index, the edited cells and whether they hold a block, in access order
+    private final LinkedHashMap<Integer, Map<Long, Boolean>> chunks =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Map<Long, Boolean>> eldest) {
+                    return size() > MAX_EDITED_CHUNKS;
+                }
+            };
+
+    /**
+     * Records the content of a cell.
+     *
+     * @param cellX     The column of the cell, in blocks.
+     * @param cellY     The row of the cell, in blocks.
+     * @param solid     Whether the cell should hold a block.
+     * @param generated Whether the generated terrain has a block in the cell.
+     * @return True if the cell's content changed.
+     */
+    public boolean set(int cellX, int cellY, boolean solid, boolean generated) {
+        int chunkIndex = chunkIndexOf(cellX);
+        long key = cellKey(cellX, cellY);
+        Map<Long, Boolean> edits = chunks.get(chunkIndex);
+        boolean current = edits == null ? generated : edits.getOrDefault(key, generated);
+        if (current == solid) {
+            return false;
+        }
+        if (solid == generated) {
+            // Back to the generated content, nothing to remember
+            edits.remove(key);
+            if (edits.isEmpty()) {
+                chunks.remove(chunkIndex);
+            }
+            return true;
+        }
+        if (edits == null) {
+            edits = new HashMap<>();
+            chunks.put(chunkIndex, edits);
+        } else if (edits.size() >= MAX_EDITS_PER_CHUNK) {
+            return false;
+        }
+        edits.put(key, solid);
+        return true;
+    }
+
+    /**
+     * Gets the edited content of a cell.
+     *
+     * @param cellX The column of the cell, in blocks.
+     * @param cellY The row of the cell, in blocks.
+     * @return Whether the cell holds a block, or null if it was not edited.
+     */
+    public Boolean get(int cellX, int cellY) {
+        return chunks.getOrDefault(chunkIndexOf(cellX), NO_EDITS).get(cellKey(cellX, cellY));
+    }
+
+    /**
+     * Visits the cells edited to hold a block within a chunk.
+     *
+     * @param chunkIndex The index of the chunk.
+     * @param action     Receives the column and row of every placed block.
+     */
+    public void forEachPlaced(int chunkIndex, BiConsumer<Integer, Integer> action) {
+        for (Map.Entry<Long, Boolean> edit : chunks.getOrDefault(chunkIndex, NO_EDITS).entrySet()) {
+            if (edit.getValue()) {
+                action.accept((int) (edit.getKey() >> Integer.SIZE), edit.getKey().intValue());
+            }
+        }
+    }
+
+    /**
+     * Gets the number of chunks with edits.
+     *
+     * @return The number of edited chunks.
+     */
+    public int getEditedChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Finds the index of the chunk containing a column.
+     *
+     * @param cellX The column, in blocks.
+     * @return The index of the chunk.
+     */
+    public static int chunkIndexOf(int cellX) {
+        return Math.floorDiv(cellX, Chunk.WIDTH / Block.SIZE);
+    }
+
+    /**
+     * Packs the two cell indices into a single key.
+     *
+     * @param cellX The column of the cell.
+     * @param cellY The row of the cell.
+     * @return The cell key.
+     */
+    private static long cellKey(int cellX, int cellY) {
+        return ((long) cellX << Integer.SIZE) | (cellY & 0xFFFFFFFFL);
+    }
+}
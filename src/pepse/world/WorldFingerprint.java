@@ -0,0 +1,149 @@
+package pepse.world;
+
+import danogl.util.Vector2;
+import pepse.world.trees.Flora;
+import pepse.world.trees.TreeArchetype;
+
+/**
+ * A stable 64-bit hash of generated world content, to check that an optimized
+ * generation path produces exactly what the reference path does.
+ * The content of a chunk is streamed straight from the terrain and flora into the
+ * hash, without creating any game object: every solid cell with its block colour,
+ * and every tree with its position, ground height, trunk height and colour,
+ * canopy flower layout and fruit layout. Floats are hashed by their bits, so any
+ * change in the generated values, however small, changes the fingerprint.
+ * The hash is 64-bit FNV-1a, which does not depend on the JVM or the platform.
+ */
+public final class WorldFingerprint {
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+    private static final int BYTE_MASK = 0xFF;
+    private long hash = OFFSET_BASIS;
+
+    /**
+     * Gets the fingerprint of the terrain of a chunk: its solid cells and their colours.
+     *
+     * @param terrain    The terrain.
+     * @param chunkIndex The index of the chunk.
+     * @return The fingerprint.
+     */
+    public static long ofTerrain(Terrain terrain, int chunkIndex) {
+        WorldFingerprint fingerprint = new WorldFingerprint();
+        fingerprint.add(chunkIndex);
+        addTerrain(fingerprint, terrain, chunkIndex);
+        return fingerprint.get();
+    }
+
+    /**
+     * Gets the fingerprint of the flora of a chunk: its trees and their flower and fruit layouts.
+     *
+     * @param flora      The flora.
+     * @param chunkIndex The index of the chunk.
+     * @return The fingerprint.
+     */
+    public static long ofFlora(Flora flora, int chunkIndex) {
+        WorldFingerprint fingerprint = new WorldFingerprint();
+        fingerprint.add(chunkIndex);
+        addFlora(fingerprint, flora, chunkIndex);
+        return fingerprint.get();
+    }
+
+    /**
+     * Gets the fingerprint of the whole generated content of a chunk.
+     *
+     * @param terrain    The terrain.
+     * @param flora      The flora.
+     * @param chunkIndex The index of the chunk.
+     * @return The fingerprint.
+     */
+    public static long ofChunk(Terrain terrain, Flora flora, int chunkIndex) {
+        WorldFingerprint fingerprint = new WorldFingerprint();
+        fingerprint.add(chunkIndex);
+        addTerrain(fingerprint, terrain, chunkIndex);
+        addFlora(fingerprint, flora, chunkIndex);
+        return fingerprint.get();
+    }
+
+    /**
+     * Adds a value to the hash, one byte at a time.
+     *
+     * @param value The value.
+     * @return This fingerprint, to chain calls.
+     */
+    public WorldFingerprint add(long value) {
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            hash ^= (value >>> shift) & BYTE_MASK;
+            hash *= PRIME;
+        }
+        return this;
+    }
+
+    /**
+     * Adds a float to the hash, by its exact bits.
+     *
+     * @param value The value.
+     * @return This fingerprint, to chain calls.
+     */
+    public WorldFingerprint add(float value) {
+        return add(Float.floatToIntBits(value));
+    }
+
+    /**
+     * Gets the hash of everything added so far.
+     *
+     * @return The hash.
+     */
+    public long get() {
+        return hash;
+    }
+
+    /**
+     * Streams the solid cells of a chunk, with their colours, into a fingerprint.
+     *
+     * @param fingerprint The fingerprint to add to.
+     * @param terrain     The terrain.
+     * @param chunkIndex  The index of the chunk.
+     */
+    private static void addTerrain(WorldFingerprint fingerprint, Terrain terrain, int chunkIndex) {
+        long[] cells = new long[1];
+        terrain.forEachSolidCell(chunkIndex * Chunk.WIDTH, (chunkIndex + 1) * Chunk.WIDTH, (cellX, cellY) -> {
+            fingerprint.add(cellX).add(cellY).add(terrain.blockColorAt(cellX, cellY).getRGB());
+            cells[0]++;
+        });
+        fingerprint.add(cells[0]);
+    }
+
+    /**
+     * Streams the trees of a chunk, with their layouts, into a fingerprint.
+     *
+     * @param fingerprint The fingerprint to add to.
+     * @param flora       The flora.
+     * @param chunkIndex  The index of the chunk.
+     */
+    private static void addFlora(WorldFingerprint fingerprint, Flora flora, int chunkIndex) {
+        long[] trees = new long[1];
+        flora.forEachTreeLayoutInRange(chunkIndex * Chunk.WIDTH, (chunkIndex + 1) * Chunk.WIDTH,
+                (x, groundHeight, archetype) -> {
+                    fingerprint.add(x).add(groundHeight);
+                    addArchetype(fingerprint, archetype);
+                    trees[0]++;
+                });
+        fingerprint.add(trees[0]);
+    }
+
+    /**
+     * Streams the layout of a tree into a fingerprint.
+     *
+     * @param fingerprint The fingerprint to add to.
+     * @param archetype   The layout of the tree.
+     */
+    private static void addArchetype(WorldFingerprint fingerprint, TreeArchetype archetype) {
+        fingerprint.add(archetype.height())
+                .add(archetype.trunkColor().getRGB())
+                .add(archetype.canopyMask())
+                .add(archetype.fruitOffsets().size());
+        for (Vector2 offset : archetype.fruitOffsets()) {
+            fingerprint.add(offset.x()).add(offset.y());
+        }
+    }
+}
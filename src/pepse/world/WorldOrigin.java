@@ -0,0 +1,63 @@
+package pepse.world;
+
+/**
+ * The absolute world x-coordinate of the game's local origin. Game objects and the
+ * camera live in local coordinates, which are kept near zero by moving the origin
+ * along with the avatar, so float positions never lose precision however far the
+ * world is explored. Generation and every index of the world (columns, cells, chunks)
+ * use absolute coordinates, so what is generated does not depend on the origin.
+ * The origin always lies on a chunk edge.
+ */
+public class WorldOrigin {
+    private long x = 0;
+
+    /**
+     * Gets the absolute x-coordinate of the local origin.
+     *
+     * @return The origin, in pixels.
+     */
+    public long getX() {
+        return x;
+    }
+
+    /**
+     * Moves the origin. Everything positioned in local coordinates must be shifted
+     * by the same distance in the opposite direction.
+     *
+     * @param x The new absolute x-coordinate of the origin, on a chunk edge.
+     */
+    public void moveTo(long x) {
+        this.x = x;
+    }
+
+    /**
+     * Converts a local x-coordinate to an absolute one.
+     *
+     * @param localX The local x-coordinate.
+     * @return The absolute x-coordinate.
+     */
+    public double toAbsoluteX(float localX) {
+        return x + (double) localX;
+    }
+
+    /**
+     * Converts an absolute x-coordinate to a local one.
+     *
+     * @param absoluteX The absolute x-coordinate.
+     * @return The local x-coordinate.
+     */
+    public float toLocalX(double absoluteX) {
+        return (float) (absoluteX - x);
+    }
+
+    /**
+     * Finds the absolute index of the cell containing a local x-coordinate.
+     *
+     * @param localX   The local x-coordinate.
+     * @param cellSize The width of the cells, in pixels.
+     * @return The cell index.
+     */
+    public int cellAt(float localX, int cellSize) {
+        return (int) Math.floor(toAbsoluteX(localX) / cellSize);
+    }
+}
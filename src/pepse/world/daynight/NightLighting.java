@@ -0,0 +1,316 @@
+package pepse.world.daynight;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.gui.rendering.Camera;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.util.Vector2;
+import pepse.world.Block;
+import pepse.world.Chunk;
+import pepse.world.WorldOrigin;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * The darkness of the night, with light sources cutting through it.
+ * Light is kept in a coarse lightmap per chunk, one value per block cell, which is
+ * recomputed only when a light source reaching that chunk appears, moves to another
+ * cell or disappears. The lightmaps are composited into one small overlay image,
+ * stretched over the window, which is redrawn only when a lightmap on screen changed,
+ * the camera moved to another cell or the darkness changed.
+ * Cells and chunks are absolute, so the lightmaps stay valid when the world origin moves.
+ */
+public class NightLighting extends GameObject {
+    private static final String NIGHT_TAG = "night";
+    private static final int CELL_SIZE = Block.SIZE;
+    private static final int COLUMNS_PER_CHUNK = Chunk.WIDTH / CELL_SIZE;
+    private static final int ROWS = 64; // Lightmap rows, from ROWS_ABOVE_REFERENCE cells above the reference
+    private static final int ROWS_ABOVE_REFERENCE = 40;
+    private static final int ALPHA_LEVELS = 255;
+    private static final int ALPHA_SHIFT = 24;
+    private static final float LANTERN_RADIUS = Block.SIZE * 6;
+    private static final float LANTERN_INTENSITY = 1f;
+    private static final Object LANTERN = new Object();
+
+    /**
+     * A light source, snapped to its cell.
+     *
+     * @param owner     The object the light belongs to, so equal lights of two owners stay apart.
+     * @param column    The cell column of the light.
+     * @param row       The lightmap row of the light.
+     * @param radius    The distance the light reaches, in pixels.
+     * @param intensity The light at the source, in [0, 1].
+     */
+    private record Light(Object owner, int column, int row, float radius, float intensity) {
+        /**
+         * Gets the first chunk the light reaches.
+         *
+         * @return The chunk index.
+         */
+        int firstChunk() {
+            return Math.floorDiv(column - cellsReached(), COLUMNS_PER_CHUNK);
+        }
+
+        /**
+         * Gets the last chunk the light reaches.
+         *
+         * @return The chunk index.
+         */
+        int lastChunk() {
+            return Math.floorDiv(column + cellsReached(), COLUMNS_PER_CHUNK);
+        }
+
+        /**
+         * Gets the number of cells the light reaches on each side.
+         *
+         * @return The reach, in cells.
+         */
+        int cellsReached() {
+            return (int) Math.ceil(radius / CELL_SIZE);
+        }
+    }
+
+    private final Camera camera;
+    private final WorldOrigin origin;
+    private final WorldClock clock;
+    private final Supplier<Vector2> lanternPosition;
+    private final float topY;
+    private final int overlayColumns;
+    private final int overlayRows;
+    private final int[] overlayPixels;
+
+    private final Map<Object, Light> lights = new HashMap<>();
+    private final Map<Integer, Set<Light>> lightsByChunk = new HashMap<>();
+    private final Map<Integer, float[]> lightmaps = new HashMap<>();
+    private final Set<Integer> dirtyChunks = new TreeSet<>();
+    private int lightmapRebuilds = 0;
+
+    // What the overlay currently shows
+    private int shownFirstColumn = Integer.MIN_VALUE;
+    private int shownFirstRow = Integer.MIN_VALUE;
+    private int shownAlphaLevel = -1;
+    private boolean overlayDirty = true;
+
+    /**
+     * Constructor for the NightLighting class.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param camera           The camera the overlay covers.
+     * @param origin           The world origin the camera and lights are positioned relative to.
+     * @param clock            The clock giving the darkness of the night.
+     * @param lanternPosition  Gets the position of the avatar's lantern.
+     * @param referenceY       A y-coordinate near the ground, around which the lightmaps are kept.
+     */
+    public NightLighting(Vector2 windowDimensions, Camera camera, WorldOrigin origin, WorldClock clock,
+                         Supplier<Vector2> lanternPosition, float referenceY) {
+        this(windowDimensions, camera, origin, clock, lanternPosition, referenceY,
+                new BufferedImage((int) Math.ceil(windowDimensions.x() / CELL_SIZE) + 1,
+                        (int) Math.ceil(windowDimensions.y() / CELL_SIZE) + 1, BufferedImage.TYPE_INT_ARGB));
+    }
+
+    /**
+     * Constructor for the NightLighting class, compositing into a given overlay image.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param camera           The camera the overlay covers.
+     * @param origin           The world origin the camera and lights are positioned relative to.
+     * @param clock            The clock giving the darkness of the night.
+     * @param lanternPosition  Gets the position of the avatar's lantern.
+     * @param referenceY       A y-coordinate near the ground, around which the lightmaps are kept.
+     * @param overlay          The overlay image, one pixel per cell on screen.
+     */
+    private NightLighting(Vector2 windowDimensions, Camera camera, WorldOrigin origin, WorldClock clock,
+                          Supplier<Vector2> lanternPosition, float referenceY, BufferedImage overlay) {
+        super(Vector2.ZERO, Vector2.of(overlay.getWidth(), overlay.getHeight()).mult(CELL_SIZE),
+                new ImageRenderable(overlay));
+        this.camera = camera;
+        this.origin = origin;
+        this.clock = clock;
+        this.lanternPosition = lanternPosition;
+        this.topY = (float) (Math.floor(referenceY / CELL_SIZE) - ROWS_ABOVE_REFERENCE) * CELL_SIZE;
+        this.overlayColumns = overlay.getWidth();
+        this.overlayRows = overlay.getHeight();
+        this.overlayPixels = ((DataBufferInt) overlay.getRaster().getDataBuffer()).getData();
+        setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        setTag(NIGHT_TAG);
+    }
+
+    /**
+     * Adds a light source, or moves it if it already exists.
+     *
+     * @param owner     The object the light belongs to, identifying it.
+     * @param position  The position of the light.
+     * @param radius    The distance the light reaches, in pixels.
+     * @param intensity The light at the source, in [0, 1].
+     */
+    public void setLight(Object owner, Vector2 position, float radius, float intensity) {
+        Light light = new Light(owner, origin.cellAt(position.x(), CELL_SIZE),
+                (int) Math.floor((position.y() - topY) / CELL_SIZE), radius, intensity);
+        Light previous = lights.put(owner, light);
+        if (light.equals(previous)) {
+            return; // Still in the same cell, nothing to recompute
+        }
+        if (previous != null) {
+            unregister(previous);
+        }
+        register(light);
+    }
+
+    /**
+     * Removes a light source.
+     *
+     * @param owner The object the light belongs to.
+     */
+    public void removeLight(Object owner) {
+        Light light = lights.remove(owner);
+        if (light != null) {
+            unregister(light);
+        }
+    }
+
+    /**
+     * Gets the number of lightmaps recomputed since the lighting was created.
+     *
+     * @return The number of lightmap rebuilds.
+     */
+    public int getLightmapRebuildCount() {
+        return lightmapRebuilds;
+    }
+
+    /**
+     * Gets the number of light sources.
+     *
+     * @return The number of lights.
+     */
+    public int getLightCount() {
+        return lights.size();
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        setLight(LANTERN, lanternPosition.get(), LANTERN_RADIUS, LANTERN_INTENSITY);
+        for (int chunk : dirtyChunks) {
+            rebuildLightmap(chunk);
+        }
+        dirtyChunks.clear();
+
+        Vector2 viewTopLeft = camera.getCenter().subtract(camera.getDimensions().mult(0.5f));
+        int firstColumn = origin.cellAt(viewTopLeft.x(), CELL_SIZE);
+        int firstRow = (int) Math.floor((viewTopLeft.y() - topY) / CELL_SIZE);
+        int alphaLevel = Math.round(clock.getNightOpacity() * ALPHA_LEVELS);
+        setTopLeftCorner(Vector2.of(origin.toLocalX((double) firstColumn * CELL_SIZE) - viewTopLeft.x(),
+                firstRow * CELL_SIZE + topY - viewTopLeft.y()));
+        if (overlayDirty || firstColumn != shownFirstColumn || firstRow != shownFirstRow
+                || alphaLevel != shownAlphaLevel) {
+            composite(firstColumn, firstRow, alphaLevel);
+        }
+    }
+
+    /**
+     * Registers a light with the chunks it reaches and marks them for recomputing.
+     *
+     * @param light The light.
+     */
+    private void register(Light light) {
+        for (int chunk = light.firstChunk(); chunk <= light.lastChunk(); chunk++) {
+            lightsByChunk.computeIfAbsent(chunk, key -> new HashSet<>()).add(light);
+            dirtyChunks.add(chunk);
+        }
+    }
+
+    /**
+     * Unregisters a light from the chunks it reaches and marks them for recomputing.
+     *
+     * @param light The light.
+     */
+    private void unregister(Light light) {
+        for (int chunk = light.firstChunk(); chunk <= light.lastChunk(); chunk++) {
+            Set<Light> chunkLights = lightsByChunk.get(chunk);
+            if (chunkLights != null) {
+                chunkLights.remove(light);
+                if (chunkLights.isEmpty()) {
+                    lightsByChunk.remove(chunk);
+                }
+            }
+            dirtyChunks.add(chunk);
+        }
+    }
+
+    /**
+     * Recomputes the lightmap of a chunk from the lights reaching it.
+     * A chunk without lights keeps no lightmap at all.
+     *
+     * @param chunk The chunk index.
+     */
+    private void rebuildLightmap(int chunk) {
+        overlayDirty = true;
+        Set<Light> chunkLights = lightsByChunk.get(chunk);
+        if (chunkLights == null) {
+            lightmaps.remove(chunk);
+            return;
+        }
+        float[] lightmap = lightmaps.computeIfAbsent(chunk, key -> new float[COLUMNS_PER_CHUNK * ROWS]);
+        Arrays.fill(lightmap, 0);
+        int chunkFirstColumn = chunk * COLUMNS_PER_CHUNK;
+
+        for (Light light : chunkLights) {
+            int reach = light.cellsReached();
+            int minColumn = Math.max(light.column() - reach, chunkFirstColumn);
+            int maxColumn = Math.min(light.column() + reach, chunkFirstColumn + COLUMNS_PER_CHUNK - 1);
+            int minRow = Math.max(light.row() - reach, 0);
+            int maxRow = Math.min(light.row() + reach, ROWS - 1);
+            for (int column = minColumn; column <= maxColumn; column++) {
+                for (int row = minRow; row <= maxRow; row++) {
+                    float distance = (float) Math.hypot(column - light.column(), row - light.row()) * CELL_SIZE;
+                    if (distance < light.radius()) {
+                        int index = row * COLUMNS_PER_CHUNK + column - chunkFirstColumn;
+                        lightmap[index] = Math.min(1,
+                                lightmap[index] + light.intensity() * (1 - distance / light.radius()));
+                    }
+                }
+            }
+        }
+        lightmapRebuilds++;
+    }
+
+    /**
+     * Redraws the overlay from the lightmaps of the cells on screen.
+     *
+     * @param firstColumn The cell column at the left edge of the overlay.
+     * @param firstRow    The lightmap row at the top edge of the overlay.
+     * @param alphaLevel  The darkness of unlit cells, in [0, ALPHA_LEVELS].
+     */
+    private void composite(int firstColumn, int firstRow, int alphaLevel) {
+        shownFirstColumn = firstColumn;
+        shownFirstRow = firstRow;
+        shownAlphaLevel = alphaLevel;
+        overlayDirty = false;
+        if (alphaLevel == 0) {
+            Arrays.fill(overlayPixels, 0);
+            return;
+        }
+
+        for (int x = 0; x < overlayColumns; x++) {
+            int column = firstColumn + x;
+            int chunk = Math.floorDiv(column, COLUMNS_PER_CHUNK);
+            float[] lightmap = lightmaps.get(chunk);
+            int lightmapColumn = column - chunk * COLUMNS_PER_CHUNK;
+            for (int y = 0; y < overlayRows; y++) {
+                int row = firstRow + y;
+                float light = lightmap == null || row < 0 || row >= ROWS
+                        ? 0 : lightmap[row * COLUMNS_PER_CHUNK + lightmapColumn];
+                int alpha = Math.round(alphaLevel * (1 - light));
+                overlayPixels[y * overlayColumns + x] = alpha << ALPHA_SHIFT;
+            }
+        }
+    }
+}
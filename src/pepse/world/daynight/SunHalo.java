@@ -17,22 +17,23 @@ public class SunHalo {
     /**
      * Creates a GameObject representing the sun's halo.
      *
-     * @param sun The sun GameObject around which the halo is created.
+     * @param sun   The sun GameObject around which the halo is created.
+     * @param clock The clock owning the time of day.
      * @return A GameObject representing the sun's halo.
      */
-    public static GameObject create(GameObject sun) {
+    public static GameObject create(GameObject sun, WorldClock clock) {
         GameObject sunHalo = new GameObject(
                 sun.getTopLeftCorner(),
                 sun.getDimensions().mult(HALO_RADIUS),
                 new OvalRenderable(HALO_COLOR)
         );
+        sunHalo.setCenter(clock.getSunCenter());
         sunHalo.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
         sunHalo.setTag(SUN_HALO_TAG);
 
-        // Component to keep the halo centered around the sun
-        sunHalo.addComponent(deltaTime -> sunHalo.setCenter(sun.getCenter()));
+        // Component to keep the halo centered on the sun's position for this time of day
+        sunHalo.addComponent(deltaTime -> sunHalo.setCenter(clock.getSunCenter()));
 
         return sunHalo;
     }
 }
-
@@ -0,0 +1,144 @@
+package pepse.world.daynight;
+
+import danogl.util.Vector2;
+
+/**
+ * The single owner of the time of day. Every day-night object (sun, halo, night)
+ * reads its state from one phase value computed here, so they can never drift apart.
+ * The derived state is rewritten in place on every update, and the clock can be
+ * queried by other systems that need the time of day.
+ */
+public class WorldClock {
+    private static final float FULL_CIRCLE = 360f;
+    private static final float MIDNIGHT_OPACITY = 0.5f;
+    private static final float SUN_ORBIT_RADIUS_RATIO = 0.5f; // Of the orbit center's height
+    private final float cycleLength;
+    private final float orbitCenterX;
+    private final float orbitCenterY;
+    private final float orbitRadius;
+    private float timeScale = 1;
+    private double time = 0;
+
+    // Derived state, rewritten on every update
+    private float phase;
+    private float nightOpacity;
+    private Vector2 sunCenter;
+
+    /**
+     * Constructor for the WorldClock class.
+     *
+     * @param cycleLength      The duration of a full day-night cycle, in seconds.
+     * @param windowDimensions The dimensions of the game window.
+     * @param sunOrbitCenterY  The height of the center of the sun's circular path.
+     */
+    public WorldClock(float cycleLength, Vector2 windowDimensions, float sunOrbitCenterY) {
+        this.cycleLength = cycleLength;
+        this.orbitCenterX = windowDimensions.x() / 2;
+        this.orbitCenterY = sunOrbitCenterY;
+        this.orbitRadius = sunOrbitCenterY * SUN_ORBIT_RADIUS_RATIO;
+        computeState();
+    }
+
+    /**
+     * Advances the clock.
+     *
+     * @param deltaTime The simulated time that passed, before time scaling.
+     */
+    public void update(float deltaTime) {
+        time += deltaTime * timeScale;
+        computeState();
+    }
+
+    /**
+     * Sets how fast the time of day runs relative to the simulation.
+     *
+     * @param timeScale The number of clock seconds per simulated second.
+     */
+    public void setTimeScale(float timeScale) {
+        this.timeScale = timeScale;
+    }
+
+    /**
+     * Gets the total clock time since the world started.
+     *
+     * @return The clock time, in seconds.
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Gets the duration of a full day-night cycle.
+     *
+     * @return The cycle length, in seconds.
+     */
+    public float getCycleLength() {
+        return cycleLength;
+    }
+
+    /**
+     * Gets the position within the current day-night cycle.
+     * 0 is noon, with the sun at its highest, and 0.5 is midnight.
+     *
+     * @return The phase, in [0, 1).
+     */
+    public float getPhase() {
+        return phase;
+    }
+
+    /**
+     * Gets the number of full cycles that passed since the world started.
+     *
+     * @return The current day.
+     */
+    public long getDay() {
+        return (long) (time / cycleLength);
+    }
+
+    /**
+     * Gets the opacity of the night darkness for the current time of day.
+     *
+     * @return The night opacity.
+     */
+    public float getNightOpacity() {
+        return nightOpacity;
+    }
+
+    /**
+     * Gets the opacity of the night darkness at a time of day.
+     *
+     * @param phase The time of day, in [0, 1), where 0 is noon and 0.5 is midnight.
+     * @return The night opacity.
+     */
+    public static float nightOpacityAt(float phase) {
+        // Darkness goes up to midnight and back, on a cubic curve
+        float halfPhase = phase < 0.5f ? phase * 2 : (1 - phase) * 2;
+        return MIDNIGHT_OPACITY * halfPhase * halfPhase * halfPhase;
+    }
+
+    /**
+     * Gets the center of the sun, in camera coordinates, for the current time of day.
+     *
+     * @return The sun center.
+     */
+    public Vector2 getSunCenter() {
+        return sunCenter;
+    }
+
+    /**
+     * Recomputes the derived state from the current time.
+     */
+    private void computeState() {
+        phase = (float) ((time / cycleLength) % 1);
+        if (phase < 0) {
+            phase += 1;
+        }
+
+        nightOpacity = nightOpacityAt(phase);
+
+        // The sun starts straight above the orbit center and goes around it once per cycle
+        double angle = Math.toRadians(phase * FULL_CIRCLE);
+        sunCenter = Vector2.of((float) (orbitCenterX + orbitRadius * Math.sin(angle)),
+                (float) (orbitCenterY - orbitRadius * Math.cos(angle)));
+    }
+}
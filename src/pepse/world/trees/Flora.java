@@ -1,33 +1,106 @@
 package pepse.world.trees;
 
+import danogl.gui.rendering.ImageRenderable;
 import danogl.util.Vector2;
 import pepse.util.BlockUtil;
+import pepse.world.BiomeField;
 import pepse.world.Block;
+import pepse.world.WorldOrigin;
 
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
-import java.util.function.Function;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntConsumer;
 
 /**
  * This class is responsible for generating and
  * managing trees within a specified range.
+ * Ranges are given in absolute coordinates, while the trees are positioned
+ * relative to the world origin.
+ * The impostor sprites of the created trees are kept in a small cache owned by
+ * this flora, so trees sharing a canopy layout share a sprite without the sprites
+ * of long-gone trees piling up.
  */
 public class Flora {
     private static final double TREE_PROBABILITY = 0.15;
-    private final Function<Float, Float> groundHeightAtX;
+    private static final int TREE_SPACING = Block.SIZE * 2; // Distance between the columns a tree may grow in
+    private static final int MAX_CACHED_SPRITES = 128; // Impostor sprites kept, about 130 KB each
+    private final DoubleUnaryOperator groundHeightAtX;
     private final int seed;
+    private final TreeArchetype[] archetypes; // Or null to draw every tree's layout
+    private final BiomeField biomeField;
+    private final WorldOrigin origin;
+    // Impostor sprites by canopy layout, in access order
+    private final LinkedHashMap<Long, ImageRenderable> impostorSprites = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, ImageRenderable> eldest) {
+            return size() > MAX_CACHED_SPRITES;
+        }
+    };
+
+    /**
+     * Constructor for the Flora class, where every tree draws its own layout.
+     *
+     * @param groundHeightAtX Function to get the
+     *                        ground height at a given absolute x-coordinate.
+     */
+    public Flora(DoubleUnaryOperator groundHeightAtX, int seed) {
+        this(groundHeightAtX, seed, 0, null, new WorldOrigin());
+    }
 
     /**
-     * Constructor for the Flora class.
+     * Constructor for the Flora class, where trees are instances of the seed's archetypes.
      *
      * @param groundHeightAtX Function to get the
-     *                        ground height at a given x-coordinate.
+     *                        ground height at a given absolute x-coordinate.
+     * @param seed            The world seed.
+     * @param archetypeCount  The number of tree archetypes, or 0 to draw every tree's layout.
+     * @param biomeField      The biome field giving the tree density, or null for a uniform density.
+     * @param origin          The world origin the trees are positioned relative to.
      */
-    public Flora(Function<Float, Float> groundHeightAtX, int seed) {
+    public Flora(DoubleUnaryOperator groundHeightAtX, int seed, int archetypeCount, BiomeField biomeField,
+                 WorldOrigin origin) {
+        this(groundHeightAtX, seed,
+                archetypeCount > 0 ? TreeArchetypeCache.forSeed(seed, archetypeCount) : null, biomeField, origin);
+    }
+
+    /**
+     * Constructor for the Flora class, where trees are instances of given archetypes,
+     * chosen per column the same way as the seed's shared archetypes.
+     *
+     * @param groundHeightAtX Function to get the
+     *                        ground height at a given absolute x-coordinate.
+     * @param seed            The world seed.
+     * @param archetypes      The tree archetypes, or null to draw every tree's layout.
+     * @param biomeField      The biome field giving the tree density, or null for a uniform density.
+     * @param origin          The world origin the trees are positioned relative to.
+     */
+    public Flora(DoubleUnaryOperator groundHeightAtX, int seed, TreeArchetype[] archetypes, BiomeField biomeField,
+                 WorldOrigin origin) {
         this.groundHeightAtX = groundHeightAtX;
         this.seed = seed;
+        this.archetypes = archetypes;
+        this.biomeField = biomeField;
+        this.origin = origin;
+    }
+
+    /**
+     * Receives the layout of a tree, without the tree being created.
+     */
+    @FunctionalInterface
+    public interface TreeVisitor {
+        /**
+         * Visits a tree.
+         *
+         * @param x            The absolute x-coordinate of the tree.
+         * @param groundHeight The ground height at the base of the tree.
+         * @param archetype    The layout of the tree.
+         */
+        void visit(int x, float groundHeight, TreeArchetype archetype);
     }
 
     /**
@@ -39,30 +112,71 @@ public class Flora {
      */
     public List<Tree> createInRange(int minX, int maxX) {
         LinkedList<Tree> trees = new LinkedList<>();
-        int finalMinX = BlockUtil.getNearestBlockLocation(minX);
-        int finalMaxX = BlockUtil.getNearestBlockLocation(maxX);
-        int currentX = finalMinX;
+        forEachTreeLayoutInRange(minX, maxX, (x, groundHeight, archetype) ->
+                trees.add(new Tree(Vector2.of(origin.toLocalX(x), groundHeight), archetype,
+                        this::impostorSpriteOf)));
+        return trees;
+    }
 
-        while (currentX < finalMaxX) {
-            int hash = Objects.hash(currentX, seed);
-            Random random = new Random(hash); // seeded random
-            float groundHeightAtX = this.groundHeightAtX.apply((float) currentX);
-            maybeAddTree(Vector2.of(currentX, groundHeightAtX), trees, random);
-            currentX += Block.SIZE * 2;
-        }
+    /**
+     * Gets the impostor sprite of a canopy layout, drawing it if it is not cached.
+     *
+     * @param canopyMask The canopy layout, one bit per flower cell.
+     * @return The sprite of the canopy.
+     */
+    public ImageRenderable impostorSpriteOf(long canopyMask) {
+        return impostorSprites.computeIfAbsent(canopyMask, TreeImpostor::createSprite);
+    }
 
-        return trees;
+    /**
+     * Draws the layouts of the trees within the specified range, without creating them.
+     * The trees of {@link #createInRange} are instances of exactly these layouts.
+     *
+     * @param minX    The minimum x-coordinate of the range.
+     * @param maxX    The maximum x-coordinate of the range.
+     * @param visitor Receives every tree's position and layout.
+     */
+    public void forEachTreeLayoutInRange(int minX, int maxX, TreeVisitor visitor) {
+        int finalMaxX = BlockUtil.getNearestBlockLocation(maxX);
+        for (int currentX = BlockUtil.getNearestBlockLocation(minX); currentX < finalMaxX;
+             currentX += TREE_SPACING) {
+            Random random = treeRandomAt(currentX);
+            if (random != null) {
+                TreeArchetype archetype = archetypes != null
+                        ? archetypes[TreeArchetypeCache.indexForColumn(seed, archetypes.length, currentX)]
+                        : TreeArchetype.draw(random, 0);
+                visitor.visit(currentX, (float) groundHeightAtX.applyAsDouble(currentX), archetype);
+            }
+        }
     }
 
     /**
-     * Determines whether to add a tree at the given ground height.
+     * Finds where trees grow within the specified range, without creating them.
+     * The placement is the same as that of {@link #createInRange}.
      *
-     * @param groundHeight The ground height at the current x-coordinate.
-     * @param trees        The list of trees to which a new tree might be added.
+     * @param minX   The minimum x-coordinate of the range.
+     * @param maxX   The maximum x-coordinate of the range.
+     * @param treeAt Receives the x-coordinate of every tree.
      */
-    private void maybeAddTree(Vector2 groundHeight, LinkedList<Tree> trees, Random random) {
-        if (random.nextDouble() < TREE_PROBABILITY) {
-            trees.add(new Tree(groundHeight, random));
+    public void forEachTreeInRange(int minX, int maxX, IntConsumer treeAt) {
+        int finalMaxX = BlockUtil.getNearestBlockLocation(maxX);
+        for (int currentX = BlockUtil.getNearestBlockLocation(minX); currentX < finalMaxX;
+             currentX += TREE_SPACING) {
+            if (treeRandomAt(currentX) != null) {
+                treeAt.accept(currentX);
+            }
         }
     }
+
+    /**
+     * Decides whether a tree grows in a column.
+     *
+     * @param x The x-coordinate of the column.
+     * @return The column's seeded random, to draw the tree's layout from, or null if no tree grows there.
+     */
+    private Random treeRandomAt(int x) {
+        Random random = new Random(Objects.hash(x, seed)); // seeded random
+        double treeProbability = biomeField == null ? TREE_PROBABILITY : biomeField.treeProbabilityAt(x);
+        return random.nextDouble() < treeProbability ? random : null;
+    }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import danogl.components.ScheduledTask;
 import danogl.components.Transition;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.util.Vector2;
+import pepse.IsolatedUpdate;
 import pepse.world.Block;
 
 import java.awt.*;
@@ -14,16 +15,18 @@ import static pepse.util.ColorSupplier.approximateColor;
 
 /**
  * This class represents a Flower, a type of flora game object.
+ * Its sway only changes the flower itself, so flowers can be updated in parallel.
  */
-public class Flower extends FloraGameObject {
-    private static final int FLOWER_SIZE = (int) (Block.SIZE * 0.8);
-    private static final Color FLOWER_COLOR = new Color(37, 189, 19);
+public class Flower extends FloraGameObject implements IsolatedUpdate {
+    static final int FLOWER_SIZE = (int) (Block.SIZE * 0.8);
+    static final Color FLOWER_COLOR = new Color(37, 189, 19);
     private static final int FLOWER_MOVE_LENGTH = 2;
     private static final String FLOWER_TAG = "flower";
     private static final float MAX_DELAY = 2.5f;
     private static final float WIND_ANGLE = 10f;
     private static final float ANGLE_ON_JUMP = 90f;
     private static final float SIZE_MULTIPLIER = 1.1f;
+    private boolean updatedInParallel = false;
 
     /**
      * Constructor for the Flower class.
@@ -59,6 +62,23 @@ public class Flower extends FloraGameObject {
         this.setTag(FLOWER_TAG);
     }
 
+    @Override
+    public void update(float deltaTime) {
+        if (!updatedInParallel) {
+            super.update(deltaTime);
+        }
+    }
+
+    @Override
+    public void setUpdatedInParallel(boolean updatedInParallel) {
+        this.updatedInParallel = updatedInParallel;
+    }
+
+    @Override
+    public void updateIsolated(float deltaTime) {
+        super.update(deltaTime);
+    }
+
     @Override
     public Runnable onJump() {
         return () -> {
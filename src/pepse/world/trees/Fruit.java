@@ -1,14 +1,11 @@
 package pepse.world.trees;
 
-import danogl.GameObject;
-import danogl.collisions.Collision;
 import danogl.components.GameObjectPhysics;
 import danogl.gui.rendering.OvalRenderable;
 import danogl.util.Vector2;
 
 import java.awt.*;
 import java.util.Random;
-import java.util.function.Consumer;
 
 /**
  * This class represents a Fruit, a type of flora game object.
@@ -17,8 +14,8 @@ public class Fruit extends FloraGameObject {
     private static final int FRUIT_SIZE = 25;
     private static final Color FRUIT_COLOR = new Color(107, 19, 189);
     private static final String FRUIT_TAG = "fruit";
-    private Consumer<GameObject> collisionCallback;
     private final int RANDOM_COLOR_BOUND = 256;
+    private boolean eaten = false;
 
     /**
      * Constructor for the Fruit class.
@@ -34,21 +31,21 @@ public class Fruit extends FloraGameObject {
     }
 
     /**
-     * Sets the collision callback to be executed
-     * when the fruit collides with another object.
+     * Checks whether the fruit was eaten and is waiting to respawn.
      *
-     * @param collisionCallback The collision callback.
+     * @return True if the fruit is eaten.
      */
-    public void setCollisionCallback(Consumer<GameObject> collisionCallback) {
-        this.collisionCallback = collisionCallback;
+    public boolean isEaten() {
+        return eaten;
     }
 
-    @Override
-    public void onCollisionEnter(GameObject other, Collision collision) {
-        super.onCollisionEnter(other, collision);
-        if (collisionCallback != null) {
-            collisionCallback.accept(other);
-        }
+    /**
+     * Sets whether the fruit was eaten and is waiting to respawn.
+     *
+     * @param eaten True if the fruit is eaten.
+     */
+    public void setEaten(boolean eaten) {
+        this.eaten = eaten;
     }
 
     @Override
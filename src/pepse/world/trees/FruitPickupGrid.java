@@ -0,0 +1,176 @@
+package pepse.world.trees;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.world.Block;
+import pepse.world.WorldOrigin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A uniform grid of the fruits in the world, keyed by the block cell of their center.
+ * Columns of cells are absolute, so the grid stays valid when the world origin moves.
+ * Picking up fruit only tests the cells around the avatar, instead of putting every
+ * loaded fruit through the engine's collision pass.
+ */
+public class FruitPickupGrid {
+    private static final int CELL_SIZE = Block.SIZE;
+    private static final int NEIGHBOUR_CELLS = 1; // Cells searched beyond the ones the object covers
+
+    /**
+     * A fruit in the grid, with the tree it grows on.
+     *
+     * @param tree  The tree the fruit grows on.
+     * @param fruit The fruit.
+     */
+    public record Pickup(Tree tree, Fruit fruit) {
+    }
+
+    private final WorldOrigin origin;
+    private final Map<Long, List<Pickup>> cells = new HashMap<>();
+    private int size = 0;
+
+    /**
+     * Constructor for the FruitPickupGrid class.
+     *
+     * @param origin The world origin the fruits are positioned relative to.
+     */
+    public FruitPickupGrid(WorldOrigin origin) {
+        this.origin = origin;
+    }
+
+    /**
+     * Adds a fruit to the grid.
+     *
+     * @param tree  The tree the fruit grows on.
+     * @param fruit The fruit.
+     */
+    public void add(Tree tree, Fruit fruit) {
+        cells.computeIfAbsent(cellKeyOf(fruit), key -> new ArrayList<>()).add(new Pickup(tree, fruit));
+        size++;
+    }
+
+    /**
+     * Removes a fruit from the grid.
+     *
+     * @param fruit The fruit.
+     * @return True if the fruit was in the grid.
+     */
+    public boolean remove(Fruit fruit) {
+        long key = cellKeyOf(fruit);
+        List<Pickup> cell = cells.get(key);
+        if (cell == null || !cell.removeIf(pickup -> pickup.fruit() == fruit)) {
+            return false;
+        }
+        if (cell.isEmpty()) {
+            cells.remove(key);
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Gets the number of fruits in the grid.
+     *
+     * @return The number of fruits.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Collects the fruits overlapping an object, searching only the cells it covers
+     * and their neighbours.
+     *
+     * @param gameObject The object picking up fruit.
+     * @param out        The list the overlapping fruits are added to.
+     */
+    public void collectOverlapping(GameObject gameObject, List<Pickup> out) {
+        Vector2 topLeft = gameObject.getTopLeftCorner();
+        Vector2 bottomRight = topLeft.add(gameObject.getDimensions());
+        collectOverlapping(topLeft.x(), topLeft.y(), bottomRight.x(), bottomRight.y(), out);
+    }
+
+    /**
+     * Collects the fruits overlapping a box, searching only the cells it covers
+     * and their neighbours.
+     *
+     * @param minX The left edge of the box.
+     * @param minY The top edge of the box.
+     * @param maxX The right edge of the box.
+     * @param maxY The bottom edge of the box.
+     * @param out  The list the overlapping fruits are added to.
+     */
+    public void collectOverlapping(float minX, float minY, float maxX, float maxY, List<Pickup> out) {
+        int minCellX = origin.cellAt(minX, CELL_SIZE) - NEIGHBOUR_CELLS;
+        int maxCellX = origin.cellAt(maxX, CELL_SIZE) + NEIGHBOUR_CELLS;
+        int minCellY = cellOf(minY) - NEIGHBOUR_CELLS;
+        int maxCellY = cellOf(maxY) + NEIGHBOUR_CELLS;
+
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                List<Pickup> cell = cells.get(cellKey(cellX, cellY));
+                if (cell == null) {
+                    continue;
+                }
+                for (Pickup pickup : cell) {
+                    if (overlaps(minX, minY, maxX, maxY, pickup.fruit())) {
+                        out.add(pickup);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether a box overlaps a fruit.
+     *
+     * @param minX  The left edge of the box.
+     * @param minY  The top edge of the box.
+     * @param maxX  The right edge of the box.
+     * @param maxY  The bottom edge of the box.
+     * @param fruit The fruit.
+     * @return True if they overlap.
+     */
+    private static boolean overlaps(float minX, float minY, float maxX, float maxY, Fruit fruit) {
+        Vector2 fruitTopLeft = fruit.getTopLeftCorner();
+        Vector2 fruitBottomRight = fruitTopLeft.add(fruit.getDimensions());
+        return minX < fruitBottomRight.x() && fruitTopLeft.x() < maxX
+                && minY < fruitBottomRight.y() && fruitTopLeft.y() < maxY;
+    }
+
+    /**
+     * Gets the grid key of the cell containing a fruit's center.
+     *
+     * @param fruit The fruit.
+     * @return The cell key.
+     */
+    private long cellKeyOf(Fruit fruit) {
+        Vector2 center = fruit.getCenter();
+        return cellKey(origin.cellAt(center.x(), CELL_SIZE), cellOf(center.y()));
+    }
+
+    /**
+     * Gets the cell index of a coordinate.
+     *
+     * @param coordinate The coordinate.
+     * @return The cell index along that axis.
+     */
+    private static int cellOf(float coordinate) {
+        return (int) Math.floor(coordinate / CELL_SIZE);
+    }
+
+    /**
+     * Packs the two cell indices into a single grid key.
+     *
+     * @param cellX The cell index along the x-axis.
+     * @param cellY The cell index along the y-axis.
+     * @return The cell key.
+     */
+    private static long cellKey(int cellX, int cellY) {
+        return ((long) cellX << Integer.SIZE) | (cellY & 0xFFFFFFFFL);
+    }
+}
@@ -1,6 +1,7 @@
 package pepse.world.trees;
 
 import danogl.components.GameObjectPhysics;
+import danogl.gui.rendering.ImageRenderable;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.util.Vector2;
 import pepse.world.Block;
@@ -9,6 +10,7 @@ import java.awt.*;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
+import java.util.function.LongFunction;
 
 import static pepse.util.ColorSupplier.approximateColor;
 
@@ -16,44 +18,68 @@ import static pepse.util.ColorSupplier.approximateColor;
  * This class represents a Tree, a type of flora game object.
  */
 public class Tree extends FloraGameObject {
-    private static final int TREE_HEIGHT_BASE = Block.SIZE * 8;
-    private static final float TREE_HEIGHT_MIN_MULTIPLIER = 0.6f;
-    private static final float TREE_HEIGHT_MAX_MULTIPLIER = 1.2f;
-    private static final int MIN_FRUITS = 3;
-    private static final int MAX_FRUITS = 6;
-    private static final int BOUND_AROUND_TOP_TREE = 3;
-    private static final Color TREE_BLOCK_COLOR = new Color(100, 50, 20);
+    static final int BOUND_AROUND_TOP_TREE = 3; // Canopy cells on each side of the trunk top
+    static final Color TREE_BLOCK_COLOR = new Color(100, 50, 20);
     private static final String TREE_TAG = "tree";
     public static final float PROBABILITY_TO_CREATE_FLOWER = 0.7f;
-    private final List<Flower> flowers;
-    private final List<Fruit> fruits;
-    private Random random;
+    static final int CANOPY_SIZE = BOUND_AROUND_TOP_TREE * 2; // Canopy cells per row and column
+    private final long canopyMask;
+    private final List<Vector2> fruitOffsets; // From the top-left corner of the trunk
+    private List<Flower> flowers = new LinkedList<>();
+    private List<Fruit> fruits = new LinkedList<>();
+    private boolean materialized = false;
+    private boolean detailed = false;
+    private final LongFunction<ImageRenderable> impostorSprites;
+    private TreeImpostor impostor;
 
     /**
-     * Constructor for the Tree class.
+     * Constructor for the Tree class, drawing its own layout.
+     * Only the layout of the flowers and fruits is drawn here; the objects
+     * themselves are created by {@link #materialize()}.
      *
      * @param groundHeight The ground height at the base of the tree.
+     * @param random       The random generator to draw the layout from.
      */
     public Tree(Vector2 groundHeight, Random random) {
-        float treeHeight = TREE_HEIGHT_BASE *
-                random.nextFloat(TREE_HEIGHT_MIN_MULTIPLIER, TREE_HEIGHT_MAX_MULTIPLIER);
-        float treeWidth = Block.SIZE;
-        Vector2 treeBlockSize = Vector2.ONES.multY(treeHeight).multX(treeWidth);
-        super(groundHeight.subtract(Vector2.DOWN.mult(treeHeight)), treeBlockSize,
-                new RectangleRenderable(approximateColor(TREE_BLOCK_COLOR)));
+        this(groundHeight, TreeArchetype.draw(random, 0));
+    }
+
+    /**
+     * Constructor for the Tree class, instantiating an archetype at a ground position.
+     *
+     * @param groundHeight The ground height at the base of the tree.
+     * @param archetype    The layout of the tree.
+     */
+    public Tree(Vector2 groundHeight, TreeArchetype archetype) {
+        this(groundHeight, archetype, TreeImpostor::createSprite);
+    }
+
+    /**
+     * Constructor for the Tree class, instantiating an archetype at a ground position,
+     * with the impostor sprite taken from a cache.
+     *
+     * @param groundHeight    The ground height at the base of the tree.
+     * @param archetype       The layout of the tree.
+     * @param impostorSprites Gives the impostor sprite of a canopy layout.
+     */
+    public Tree(Vector2 groundHeight, TreeArchetype archetype, LongFunction<ImageRenderable> impostorSprites) {
+        super(groundHeight.subtract(Vector2.DOWN.mult(archetype.height())),
+                Vector2.ONES.multY(archetype.height()).multX(Block.SIZE),
+                archetype.trunkRenderable());
 
         physics().setMass(GameObjectPhysics.IMMOVABLE_MASS);
         physics().preventIntersectionsFromDirection(Vector2.ZERO);
 
-        this.random = random;
-        this.flowers = addFlowerAroundTreeTop(this.getTopLeftCorner());
-        this.fruits = addFruitsAroundTreeTop(this.getTopLeftCorner());
+        this.canopyMask = archetype.canopyMask();
+        this.fruitOffsets = archetype.fruitOffsets();
+        this.impostorSprites = impostorSprites;
 
         this.setTag(TREE_TAG);
     }
 
     /**
      * Returns the list of flowers around the tree.
+     * The list is empty until the tree is materialized.
      *
      * @return List of Flower objects
      */
@@ -63,6 +89,7 @@ public class Tree extends FloraGameObject {
 
     /**
      * Returns the list of fruits around the tree.
+     * The list is empty until the tree is materialized.
      *
      * @return List of Fruit objects
      */
@@ -71,17 +98,77 @@ public class Tree extends FloraGameObject {
     }
 
     /**
-     * Generates a random position around the tree top.
+     * Returns the number of flowers in the tree layout, whether materialized or not.
      *
-     * @param treeCenter The center position of the tree.
-     * @return A random position around the tree top.
+     * @return The number of flowers.
+     */
+    public int getFlowerCount() {
+        return Long.bitCount(canopyMask);
+    }
+
+    /**
+     * Returns the number of fruits in the tree layout, whether materialized or not.
+     *
+     * @return The number of fruits.
+     */
+    public int getFruitCount() {
+        return fruitOffsets.size();
+    }
+
+    /**
+     * Checks whether the tree is currently shown with its flowers and fruits.
+     *
+     * @return True if the tree is detailed, false if it is shown as an impostor.
      */
-    private Vector2 getRandomPositionAroundTree(Vector2 treeCenter, Random random) {
-        return treeCenter.add(Vector2.ONES.mult(Block.SIZE)
-                .multX(random.nextInt(-BOUND_AROUND_TOP_TREE, BOUND_AROUND_TOP_TREE))
-                .multY(random.nextInt(-BOUND_AROUND_TOP_TREE, BOUND_AROUND_TOP_TREE)));
+    public boolean isDetailed() {
+        return detailed;
     }
 
+    /**
+     * Shows the tree with its flowers and fruits, creating them on first use.
+     * The objects are kept afterwards, so eaten fruits stay eaten.
+     */
+    public void materialize() {
+        if (!materialized) {
+            this.flowers = addFlowerAroundTreeTop(this.getTopLeftCorner());
+            this.fruits = addFruitsAroundTreeTop();
+            materialized = true;
+        }
+        detailed = true;
+    }
+
+    /**
+     * Marks the tree as shown by its impostor instead of its flowers and fruits.
+     */
+    public void dematerialize() {
+        detailed = false;
+    }
+
+    /**
+     * Returns the impostor showing the canopy of the tree from afar.
+     *
+     * @return The impostor of the tree.
+     */
+    public TreeImpostor getImpostor() {
+        if (impostor == null) {
+            impostor = new TreeImpostor(this.getTopLeftCorner(), impostorSprites.apply(canopyMask));
+        }
+        return impostor;
+    }
+
+    /**
+     * Moves the tree together with its flowers, fruits and impostor, whether shown or not.
+     *
+     * @param offset The distance to move by.
+     */
+    public void moveBy(Vector2 offset) {
+        for (FloraGameObject element : getAllTreeElements()) {
+            element.setTopLeftCorner(element.getTopLeftCorner().add(offset));
+        }
+        if (impostor != null) {
+            impostor.setTopLeftCorner(impostor.getTopLeftCorner().add(offset));
+        }
+    }
 
     /**
      * Adds flowers around the top of the tree.
@@ -91,12 +178,10 @@ public class Tree extends FloraGameObject {
      */
     private List<Flower> addFlowerAroundTreeTop(Vector2 treeCenter) {
         List<Flower> flowers = new LinkedList<>();
-        int numRowsOfFlowers = BOUND_AROUND_TOP_TREE * 2;
-        int numColsOfFlowers = BOUND_AROUND_TOP_TREE * 2;
 
-        for (int i = 0; i < numRowsOfFlowers; i++) {
-            for (int j = 0; j < numColsOfFlowers; j++) {
-                if (random.nextFloat(0, 1f) < PROBABILITY_TO_CREATE_FLOWER) {
+        for (int i = 0; i < CANOPY_SIZE; i++) {
+            for (int j = 0; j < CANOPY_SIZE; j++) {
+                if ((canopyMask & (1L << (i * CANOPY_SIZE + j))) != 0) {
                     Vector2 topLeft = treeCenter.add(Vector2.ONES.mult(Block.SIZE)
                             .multX(i - BOUND_AROUND_TOP_TREE)
                             .multY(j - BOUND_AROUND_TOP_TREE));
@@ -111,15 +196,12 @@ public class Tree extends FloraGameObject {
     /**
      * Adds fruits around the top of the tree.
      *
-     * @param treeCenter The center position of the tree.
      * @return A list of Fruit objects.
      */
-    private List<Fruit> addFruitsAroundTreeTop(Vector2 treeCenter) {
+    private List<Fruit> addFruitsAroundTreeTop() {
         List<Fruit> fruits = new LinkedList<>();
-        int numFruits = random.nextInt(MIN_FRUITS, MAX_FRUITS);
-        for (int i = 0; i < numFruits; i++) {
-            Vector2 topLeft = getRandomPositionAroundTree(treeCenter, random);
-            fruits.add(new Fruit(topLeft));
+        for (Vector2 offset : fruitOffsets) {
+            fruits.add(new Fruit(this.getTopLeftCorner().add(offset)));
         }
         return fruits;
     }
@@ -0,0 +1,91 @@
+package pepse.world.trees;
+
+import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.world.Block;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static pepse.util.ColorSupplier.approximateColor;
+
+/**
+ * The layout of a tree: its trunk height, which canopy cells hold a flower, where its
+ * fruits grow relative to the trunk, and its pre-baked trunk renderable.
+ * A tree is placed by instantiating an archetype at a ground position.
+ * The whole layout, trunk colour included, is drawn from the given random generator,
+ * so a seeded generator always draws the same archetype.
+ *
+ * @param height          The height of the trunk.
+ * @param canopyMask      One bit per canopy cell holding a flower, row by row.
+ * @param fruitOffsets    The top-left positions of the fruits, relative to the trunk's top-left corner.
+ * @param trunkColor      The colour of the trunk.
+ * @param trunkRenderable The renderable of the trunk.
+ */
+public record TreeArchetype(float height, long canopyMask, List<Vector2> fruitOffsets, Color trunkColor,
+                            Renderable trunkRenderable) {
+    private static final int TREE_HEIGHT_BASE = Block.SIZE * 8;
+    private static final float TREE_HEIGHT_MIN_MULTIPLIER = 0.6f;
+    private static final float TREE_HEIGHT_MAX_MULTIPLIER = 1.2f;
+    private static final int MIN_FRUITS = 3;
+    private static final int MAX_FRUITS = 6;
+    private static final float PROBABILITY_TO_CREATE_FLOWER = Tree.PROBABILITY_TO_CREATE_FLOWER;
+
+    /**
+     * Draws a new tree layout.
+     *
+     * @param random       The random generator to draw the layout from.
+     * @param heightBucket The step the trunk height is rounded to, or 0 to keep it exact.
+     * @return The drawn archetype.
+     */
+    public static TreeArchetype draw(Random random, float heightBucket) {
+        float height = TREE_HEIGHT_BASE *
+                random.nextFloat(TREE_HEIGHT_MIN_MULTIPLIER, TREE_HEIGHT_MAX_MULTIPLIER);
+        if (heightBucket > 0) {
+            height = Math.round(height / heightBucket) * heightBucket;
+        }
+        long canopyMask = drawCanopyMask(random);
+        List<Vector2> fruitOffsets = drawFruitOffsets(random);
+        Color trunkColor = approximateColor(Tree.TREE_BLOCK_COLOR, random);
+        return new TreeArchetype(height, canopyMask, fruitOffsets, trunkColor, new RectangleRenderable(trunkColor));
+    }
+
+    /**
+     * Draws which cells around the top of the tree hold a flower.
+     *
+     * @param random The random generator to draw from.
+     * @return A mask with one bit per canopy cell, row by row.
+     */
+    private static long drawCanopyMask(Random random) {
+        long mask = 0;
+        for (int i = 0; i < Tree.CANOPY_SIZE; i++) {
+            for (int j = 0; j < Tree.CANOPY_SIZE; j++) {
+                if (random.nextFloat(0, 1f) < PROBABILITY_TO_CREATE_FLOWER) {
+                    mask |= 1L << (i * Tree.CANOPY_SIZE + j);
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Draws the positions of the fruits around the top of the tree.
+     *
+     * @param random The random generator to draw from.
+     * @return The fruit positions, relative to the trunk's top-left corner.
+     */
+    private static List<Vector2> drawFruitOffsets(Random random) {
+        int numFruits = random.nextInt(MIN_FRUITS, MAX_FRUITS);
+        List<Vector2> offsets = new ArrayList<>(numFruits);
+        for (int i = 0; i < numFruits; i++) {
+            offsets.add(Vector2.ONES.mult(Block.SIZE)
+                    .multX(random.nextInt(-Tree.BOUND_AROUND_TOP_TREE, Tree.BOUND_AROUND_TOP_TREE))
+                    .multY(random.nextInt(-Tree.BOUND_AROUND_TOP_TREE, Tree.BOUND_AROUND_TOP_TREE)));
+        }
+        return Collections.unmodifiableList(offsets);
+    }
+}
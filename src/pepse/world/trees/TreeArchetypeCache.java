@@ -0,0 +1,101 @@
+package pepse.world.trees;
+
+import pepse.world.Block;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A per-seed set of tree archetypes. Trees placed with the cache are instances of one
+ * of K archetypes, chosen by hashing the tree's column, instead of each drawing its own
+ * layout. A larger K gives more variety, a smaller K faster generation.
+ * The archetypes of a seed are immutable and shared by every world using that seed.
+ */
+public final class TreeArchetypeCache {
+    private static final float HEIGHT_BUCKET = Block.SIZE / 2f; // Trunk heights are rounded to this step
+    private static final int MIX_MULTIPLIER_1 = 0x85EBCA6B;
+    private static final int MIX_MULTIPLIER_2 = 0xC2B2AE35;
+    private static final Map<Key, TreeArchetype[]> ARCHETYPES = new ConcurrentHashMap<>();
+
+    /**
+     * The identity of a set of archetypes.
+     *
+     * @param seed  The world seed.
+     * @param count The number of archetypes.
+     */
+    private record Key(int seed, int count) {
+    }
+
+    private TreeArchetypeCache() {
+    }
+
+    /**
+     * Gets the archetype of the tree growing at a column.
+     *
+     * @param seed  The world seed.
+     * @param count The number of archetypes of the seed.
+     * @param x     The x-coordinate of the column.
+     * @return The archetype of the column's tree.
+     */
+    public static TreeArchetype forColumn(int seed, int count, int x) {
+        return forSeed(seed, count)[indexForColumn(seed, count, x)];
+    }
+
+    /**
+     * Gets the shared archetypes of a seed, drawing them on first use.
+     * The returned array is shared and must not be modified.
+     *
+     * @param seed  The world seed.
+     * @param count The number of archetypes of the seed.
+     * @return The archetypes.
+     */
+    public static TreeArchetype[] forSeed(int seed, int count) {
+        return ARCHETYPES.computeIfAbsent(new Key(seed, count), key -> drawArchetypes(key.seed(), key.count()));
+    }
+
+    /**
+     * Chooses which of a seed's archetypes the tree growing at a column is an instance of.
+     *
+     * @param seed  The world seed.
+     * @param count The number of archetypes of the seed.
+     * @param x     The x-coordinate of the column.
+     * @return The index of the column's archetype.
+     */
+    public static int indexForColumn(int seed, int count, int x) {
+        return Math.floorMod(mix(x ^ seed), count);
+    }
+
+    /**
+     * Draws all the archetypes of a seed, without caching them. The archetypes are
+     * equal to the cached ones, so this is the reference the cache can be checked against.
+     *
+     * @param seed  The world seed.
+     * @param count The number of archetypes.
+     * @return The freshly drawn archetypes.
+     */
+    public static TreeArchetype[] drawArchetypes(int seed, int count) {
+        TreeArchetype[] archetypes = new TreeArchetype[count];
+        for (int i = 0; i < archetypes.length; i++) {
+            Random random = new Random(Objects.hash(seed, i));
+            archetypes[i] = TreeArchetype.draw(random, HEIGHT_BUCKET);
+        }
+        return archetypes;
+    }
+
+    /**
+     * Scrambles the bits of a value, so neighbouring columns get unrelated archetypes.
+     *
+     * @param value The value to scramble.
+     * @return The scrambled value.
+     */
+    private static int mix(int value) {
+        value ^= value >>> 16;
+        value *= MIX_MULTIPLIER_1;
+        value ^= value >>> 13;
+        value *= MIX_MULTIPLIER_2;
+        value ^= value >>> 16;
+        return value;
+    }
+}
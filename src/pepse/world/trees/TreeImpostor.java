@@ -0,0 +1,53 @@
+package pepse.world.trees;
+
+import danogl.GameObject;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.util.Vector2;
+import pepse.world.Block;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * A single sprite showing the canopy silhouette of a distant tree,
+ * used instead of its flower and fruit objects.
+ */
+public class TreeImpostor extends GameObject {
+    private static final String IMPOSTOR_TAG = "treeImpostor";
+    private static final int CANOPY_PIXELS = Tree.CANOPY_SIZE * Block.SIZE;
+    private static final int CANOPY_OFFSET = Tree.CANOPY_SIZE / 2 * Block.SIZE;
+
+    /**
+     * Constructor for the TreeImpostor class.
+     *
+     * @param treeTopLeft The top-left corner of the tree trunk.
+     * @param sprite      The canopy silhouette of the tree, see {@link #createSprite}.
+     */
+    public TreeImpostor(Vector2 treeTopLeft, ImageRenderable sprite) {
+        super(treeTopLeft.subtract(Vector2.of(CANOPY_OFFSET, CANOPY_OFFSET + Flower.FLOWER_SIZE)),
+                Vector2.ONES.mult(CANOPY_PIXELS),
+                sprite);
+        this.setTag(IMPOSTOR_TAG);
+    }
+
+    /**
+     * Draws the canopy silhouette for a canopy layout.
+     *
+     * @param canopyMask The canopy layout, one bit per flower cell.
+     * @return The sprite of the canopy.
+     */
+    static ImageRenderable createSprite(long canopyMask) {
+        BufferedImage image = new BufferedImage(CANOPY_PIXELS, CANOPY_PIXELS, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Flower.FLOWER_COLOR);
+        for (int i = 0; i < Tree.CANOPY_SIZE; i++) {
+            for (int j = 0; j < Tree.CANOPY_SIZE; j++) {
+                if ((canopyMask & (1L << (i * Tree.CANOPY_SIZE + j))) != 0) {
+                    graphics.fillRect(i * Block.SIZE, j * Block.SIZE, Flower.FLOWER_SIZE, Flower.FLOWER_SIZE);
+                }
+            }
+        }
+        graphics.dispose();
+        return new ImageRenderable(image);
+    }
+}
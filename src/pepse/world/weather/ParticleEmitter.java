@@ -0,0 +1,229 @@
+package pepse.world.weather;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.gui.rendering.Camera;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.util.Vector2;
+import pepse.world.ColumnHeightCache;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Emits the particles of one kind of weather over the camera's view.
+ * The particles are not game objects: their state is kept in primitive arrays,
+ * updated in one pass, stopped by the cached column heights instead of the terrain
+ * blocks, and drawn into a single image shown by this object.
+ */
+public class ParticleEmitter extends GameObject {
+    private static final String EMITTER_TAG = "weather";
+    private static final int MAX_PARTICLES = 40000;
+    private static final float VIEW_MARGIN = 100; // Pixels beyond the view where particles live
+    private static final float VIEW_WIDTH_UNIT = 1000; // Pixels of view the spawn rates are given per
+    private static final float SWAY_FREQUENCY = 2f; // Radians per second
+    private static final double FULL_TURN = 2 * Math.PI;
+
+    private final WeatherType type;
+    private final Camera camera;
+    private final ColumnHeightCache columnHeights;
+    private final DoubleSupplier intensity;
+    private final Random random;
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+
+    // Particle state, one entry per live particle in [0, count)
+    private final float[] x = new float[MAX_PARTICLES];
+    private final float[] y = new float[MAX_PARTICLES];
+    private final float[] fallSpeed = new float[MAX_PARTICLES];
+    private final float[] swayPhase = new float[MAX_PARTICLES];
+    private int count = 0;
+    private double pendingSpawns = 0;
+    private float time = 0;
+    private boolean imageCleared = true;
+    private boolean moved = false; // Whether the particles moved since they were last drawn
+    private float drawnViewX = Float.NaN; // The camera center the image was last drawn for
+    private float drawnViewY = Float.NaN;
+
+    /**
+     * Constructor for the ParticleEmitter class.
+     *
+     * @param type             The kind of weather emitted.
+     * @param windowDimensions The dimensions of the game window.
+     * @param camera           The camera whose view the particles fall over.
+     * @param columnHeights    The surface heights the particles stop at.
+     * @param intensity        The current intensity of the weather, in [0, 1].
+     * @param seed             The seed of the particles' random generator.
+     */
+    public ParticleEmitter(WeatherType type, Vector2 windowDimensions, Camera camera,
+                           ColumnHeightCache columnHeights, DoubleSupplier intensity, long seed) {
+        this(type, windowDimensions, camera, columnHeights, intensity, seed,
+                new BufferedImage((int) windowDimensions.x(), (int) windowDimensions.y(),
+                        BufferedImage.TYPE_INT_ARGB));
+    }
+
+    /**
+     * Constructor for the ParticleEmitter class, drawing into a given image.
+     *
+     * @param type             The kind of weather emitted.
+     * @param windowDimensions The dimensions of the game window.
+     * @param camera           The camera whose view the particles fall over.
+     * @param columnHeights    The surface heights the particles stop at.
+     * @param intensity        The current intensity of the weather, in [0, 1].
+     * @param seed             The seed of the particles' random generator.
+     * @param image            The image the particles are drawn into.
+     */
+    private ParticleEmitter(WeatherType type, Vector2 windowDimensions, Camera camera,
+                            ColumnHeightCache columnHeights, DoubleSupplier intensity, long seed,
+                            BufferedImage image) {
+        super(Vector2.ZERO, windowDimensions, new ImageRenderable(image));
+        this.type = type;
+        this.camera = camera;
+        this.columnHeights = columnHeights;
+        this.intensity = intensity;
+        this.random = new Random(seed);
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        setTag(EMITTER_TAG);
+    }
+
+    /**
+     * Gets the number of live particles.
+     *
+     * @return The particle count.
+     */
+    public int getParticleCount() {
+        return count;
+    }
+
+    /**
+     * Moves every particle after the world origin moved, so they keep their place in the world.
+     *
+     * @param shiftX The distance the origin moved by.
+     */
+    public void shiftOrigin(float shiftX) {
+        for (int i = 0; i < count; i++) {
+            x[i] -= shiftX;
+        }
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        time += deltaTime;
+        float viewMinX = camera.getCenter().x() - width / 2f;
+        float viewMinY = camera.getCenter().y() - height / 2f;
+        spawn(deltaTime, viewMinX, viewMinY);
+        move(deltaTime, viewMinX, viewMinY);
+        moved = true;
+    }
+
+    /**
+     * Draws the particles into the emitter's image, if they or the camera moved since the last draw.
+     * Called once per rendered frame, so frames running several simulation steps draw only once.
+     */
+    public void render() {
+        Vector2 viewCenter = camera.getCenter();
+        if (moved || viewCenter.x() != drawnViewX || viewCenter.y() != drawnViewY) {
+            draw(viewCenter.x() - width / 2f, viewCenter.y() - height / 2f);
+            moved = false;
+            drawnViewX = viewCenter.x();
+            drawnViewY = viewCenter.y();
+        }
+    }
+
+    /**
+     * Spawns the particles due this frame above the view.
+     *
+     * @param deltaTime The time that passed since the last frame.
+     * @param viewMinX  The left edge of the view, in world coordinates.
+     * @param viewMinY  The top edge of the view, in world coordinates.
+     */
+    private void spawn(float deltaTime, float viewMinX, float viewMinY) {
+        float spawnWidth = width + 2 * VIEW_MARGIN;
+        pendingSpawns += type.getMaxSpawnRate() * intensity.getAsDouble()
+                * spawnWidth / VIEW_WIDTH_UNIT * deltaTime;
+        while (pendingSpawns >= 1 && count < MAX_PARTICLES) {
+            x[count] = viewMinX - VIEW_MARGIN + random.nextFloat() * spawnWidth;
+            y[count] = viewMinY - random.nextFloat() * VIEW_MARGIN;
+            fallSpeed[count] = type.getMinFallSpeed()
+                    + random.nextFloat() * (type.getMaxFallSpeed() - type.getMinFallSpeed());
+            swayPhase[count] = (float) (random.nextFloat() * FULL_TURN);
+            count++;
+            pendingSpawns--;
+        }
+        pendingSpawns = Math.min(pendingSpawns, 1);
+    }
+
+    /**
+     * Moves all the particles, removing those that reached the ground or left the view.
+     *
+     * @param deltaTime The time that passed since the last frame.
+     * @param viewMinX  The left edge of the view, in world coordinates.
+     * @param viewMinY  The top edge of the view, in world coordinates.
+     */
+    private void move(float deltaTime, float viewMinX, float viewMinY) {
+        float minX = viewMinX - VIEW_MARGIN;
+        float maxX = viewMinX + width + VIEW_MARGIN;
+        float maxY = viewMinY + height + VIEW_MARGIN;
+        float drift = type.getDrift() * deltaTime;
+        float sway = type.getSway() * deltaTime;
+        float swayAngle = time * SWAY_FREQUENCY;
+
+        for (int i = 0; i < count; i++) {
+            float newX = x[i] + drift;
+            if (sway != 0) {
+                newX += sway * (float) Math.sin(swayAngle + swayPhase[i]);
+            }
+            float newY = y[i] + fallSpeed[i] * deltaTime;
+            if (newX < minX || newX > maxX || newY > maxY || newY >= columnHeights.surfaceAt(newX)) {
+                // Replace the dead particle by the last one, and look at this slot again
+                count--;
+                x[i] = x[count];
+                y[i] = y[count];
+                fallSpeed[i] = fallSpeed[count];
+                swayPhase[i] = swayPhase[count];
+                i--;
+                continue;
+            }
+            x[i] = newX;
+            y[i] = newY;
+        }
+    }
+
+    /**
+     * Draws all the particles into the emitter's image.
+     *
+     * @param viewMinX The left edge of the view, in world coordinates.
+     * @param viewMinY The top edge of the view, in world coordinates.
+     */
+    private void draw(float viewMinX, float viewMinY) {
+        if (count == 0 && imageCleared) {
+            return;
+        }
+        Arrays.fill(pixels, 0);
+        imageCleared = count == 0;
+        int argb = type.getArgb();
+        int particleWidth = type.getParticleWidth();
+        int particleHeight = type.getParticleHeight();
+
+        for (int i = 0; i < count; i++) {
+            int left = (int) (x[i] - viewMinX);
+            int top = (int) (y[i] - viewMinY) - particleHeight;
+            int right = Math.min(left + particleWidth, width);
+            int bottom = Math.min(top + particleHeight, height);
+            for (int py = Math.max(top, 0); py < bottom; py++) {
+                int row = py * width;
+                for (int px = Math.max(left, 0); px < right; px++) {
+                    pixels[row + px] = argb;
+                }
+            }
+        }
+    }
+}
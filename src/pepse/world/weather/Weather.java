@@ -0,0 +1,68 @@
+package pepse.world.weather;
+
+import danogl.gui.rendering.Camera;
+import danogl.util.Vector2;
+import pepse.world.ColumnHeightCache;
+import pepse.world.daynight.WorldClock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Creates the weather of the world. Every day of the day-night cycle has its own
+ * weather, drawn from the seed: clear, rain, snow or falling leaves. The weather
+ * builds up from noon, peaks at midnight and fades out by the next noon, when the
+ * next day's weather takes over.
+ */
+public class Weather {
+    private static final int CLEAR_DAYS = 1; // Weights of clear days among the weather kinds
+    private static final WeatherType[] TYPES = WeatherType.values();
+
+    /**
+     * Creates one particle emitter per kind of weather.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param camera           The camera whose view the weather falls over.
+     * @param clock            The clock owning the time of day.
+     * @param columnHeights    The surface heights the particles stop at.
+     * @param seed             The world seed.
+     * @return The emitters, to be added to the weather layer.
+     */
+    public static List<ParticleEmitter> create(Vector2 windowDimensions, Camera camera, WorldClock clock,
+                                               ColumnHeightCache columnHeights, int seed) {
+        List<ParticleEmitter> emitters = new ArrayList<>(TYPES.length);
+        for (WeatherType type : TYPES) {
+            emitters.add(new ParticleEmitter(type, windowDimensions, camera, columnHeights,
+                    () -> intensity(type, clock, seed), Objects.hash(seed, type.ordinal())));
+        }
+        return emitters;
+    }
+
+    /**
+     * Gets the weather of a day.
+     *
+     * @param day  The day, as counted by the world clock.
+     * @param seed The world seed.
+     * @return The weather of the day, or null if the day is clear.
+     */
+    public static WeatherType weatherOfDay(long day, int seed) {
+        int index = Math.floorMod(Objects.hash(day, seed), TYPES.length + CLEAR_DAYS);
+        return index < TYPES.length ? TYPES[index] : null;
+    }
+
+    /**
+     * Computes the current intensity of a kind of weather.
+     *
+     * @param type  The kind of weather.
+     * @param clock The clock owning the time of day.
+     * @param seed  The world seed.
+     * @return The intensity, in [0, 1].
+     */
+    private static double intensity(WeatherType type, WorldClock clock, int seed) {
+        if (weatherOfDay(clock.getDay(), seed) != type) {
+            return 0;
+        }
+        return Math.sin(Math.PI * clock.getPhase());
+    }
+}
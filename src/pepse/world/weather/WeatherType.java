@@ -0,0 +1,117 @@
+package pepse.world.weather;
+
+import java.awt.*;
+
+/**
+ * The kinds of weather, with the look and motion of their particles.
+ */
+public enum WeatherType {
+    RAIN(new Color(170, 190, 230, 180), 15000, 500, 700, 60, 0, 1, 7),
+    SNOW(new Color(255, 255, 255, 230), 4000, 50, 110, 0, 25, 2, 2),
+    LEAVES(new Color(190, 110, 40, 255), 300, 60, 120, 30, 40, 3, 2);
+
+    private final int argb;
+    private final float maxSpawnRate;
+    private final float minFallSpeed;
+    private final float maxFallSpeed;
+    private final float drift;
+    private final float sway;
+    private final int particleWidth;
+    private final int particleHeight;
+
+    /**
+     * Constructor for the WeatherType enum.
+     *
+     * @param color          The colour of the particles.
+     * @param maxSpawnRate   The particles spawned per second at full intensity, per 1000 pixels of view.
+     * @param minFallSpeed   The minimal falling speed, in pixels per second.
+     * @param maxFallSpeed   The maximal falling speed, in pixels per second.
+     * @param drift          The constant horizontal speed, in pixels per second.
+     * @param sway           The amplitude of the side-to-side speed, in pixels per second.
+     * @param particleWidth  The width of a particle, in pixels.
+     * @param particleHeight The height of a particle, in pixels.
+     */
+    WeatherType(Color color, float maxSpawnRate, float minFallSpeed, float maxFallSpeed,
+                float drift, float sway, int particleWidth, int particleHeight) {
+        this.argb = color.getRGB();
+        this.maxSpawnRate = maxSpawnRate;
+        this.minFallSpeed = minFallSpeed;
+        this.maxFallSpeed = maxFallSpeed;
+        this.drift = drift;
+        this.sway = sway;
+        this.particleWidth = particleWidth;
+        this.particleHeight = particleHeight;
+    }
+
+    /**
+     * Gets the colour of the particles.
+     *
+     * @return The colour, as an ARGB value.
+     */
+    public int getArgb() {
+        return argb;
+    }
+
+    /**
+     * Gets the particles spawned per second at full intensity, per 1000 pixels of view.
+     *
+     * @return The maximal spawn rate.
+     */
+    public float getMaxSpawnRate() {
+        return maxSpawnRate;
+    }
+
+    /**
+     * Gets the minimal falling speed.
+     *
+     * @return The speed, in pixels per second.
+     */
+    public float getMinFallSpeed() {
+        return minFallSpeed;
+    }
+
+    /**
+     * Gets the maximal falling speed.
+     *
+     * @return The speed, in pixels per second.
+     */
+    public float getMaxFallSpeed() {
+        return maxFallSpeed;
+    }
+
+    /**
+     * Gets the constant horizontal speed.
+     *
+     * @return The speed, in pixels per second.
+     */
+    public float getDrift() {
+        return drift;
+    }
+
+    /**
+     * Gets the amplitude of the side-to-side speed.
+     *
+     * @return The amplitude, in pixels per second.
+     */
+    public float getSway() {
+        return sway;
+    }
+
+    /**
+     * Gets the width of a particle.
+     *
+     * @return The width, in pixels.
+     */
+    public int getParticleWidth() {
+        return particleWidth;
+    }
+
+    /**
+     * Gets the height of a particle.
+     *
+     * @return The height, in pixels.
+     */
+    public int getParticleHeight() {
+        return particleHeight;
+    }
+}